@@ -0,0 +1,68 @@
+package com.sims.bench;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.CursorPage;
+import com.sims.model.Student;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The enroll page's list of students not yet in a class, for the largest
+ * class in the dataset and one of the smallest, with and without a search
+ * term narrowing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailableStudentsBenchmark {
+    @Param({"10000", "100000"})
+    private int students;
+
+    @Param({"large", "small"})
+    private String roster;
+
+    @Param({"", "smith"})
+    private String term;
+
+    private SimsContext sims;
+    private StudentService studentService;
+    private ClassSchedule schedule;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sims = SimsContext.start(students);
+        studentService = sims.bean(StudentService.class);
+        String scheduleId = "large".equals(roster)
+                ? sims.dataset().largeScheduleIds().get(0)
+                : sims.dataset().smallScheduleIds().get(0);
+        schedule = sims.bean(ClassScheduleService.class).getClassScheduleById(scheduleId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sims.close();
+    }
+
+    @Benchmark
+    public CursorPage<Student> firstPage() {
+        return studentService.getAvailableStudentsPage(schedule, term, null, null, 25);
+    }
+}
@@ -0,0 +1,68 @@
+package com.sims.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints two JSON result files from {@link BenchmarkMain} side by side:
+ * {@code CompareResults baseline.json candidate.json}. Each benchmark and
+ * parameter combination is matched by name; the change is relative to the
+ * baseline, and a change inside both runs' combined error is marked as noise.
+ */
+public final class CompareResults {
+    private CompareResults() {
+    }
+
+    private record Score(double value, double error, String unit) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> candidate = read(new File(args[1]));
+        Map<String, Score> all = new TreeMap<>(baseline);
+        candidate.forEach(all::putIfAbsent);
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (String name : all.keySet()) {
+            Score before = baseline.get(name);
+            Score after = candidate.get(name);
+            String change;
+            if (before == null || after == null) {
+                change = "-";
+            } else {
+                double delta = (after.value() - before.value()) / before.value() * 100;
+                boolean noise = Math.abs(after.value() - before.value()) <= before.error() + after.error();
+                change = String.format("%+.1f%%%s", delta, noise ? " ~" : "");
+            }
+            System.out.printf("%-90s %14s %14s %9s%n", name, format(before), format(after), change);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText().replace("com.sims.bench.", ""));
+            run.path("params").properties().forEach(param ->
+                    name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(name.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private static String format(Score score) {
+        return score == null ? "-" : String.format("%.2f %s", score.value(), score.unit());
+    }
+}
@@ -0,0 +1,64 @@
+package com.sims.bench;
+
+import com.sims.service.ClassScheduleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deleting a class together with its roster. Each measured call deletes a
+ * class inserted before the iteration, so only the cascade is timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DeleteCascadeBenchmark {
+    @Param({"100000"})
+    private int students;
+
+    @Param({"10", "100", "1000"})
+    private int roster;
+
+    private SimsContext sims;
+    private ClassScheduleService classScheduleService;
+    private MongoTemplate mongoTemplate;
+    private String scheduleId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sims = SimsContext.start(students);
+        classScheduleService = sims.bean(ClassScheduleService.class);
+        mongoTemplate = sims.bean(MongoTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void addSchedule() {
+        scheduleId = SchoolDataGenerator.addSchedule(mongoTemplate, roster);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sims.close();
+    }
+
+    @Benchmark
+    public void deleteClassSchedule() {
+        classScheduleService.deleteClassSchedule(scheduleId);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sims.bench;
+
+import com.sims.model.EnrollmentResult;
+import com.sims.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One enrollment and its reversal per invocation, cycling through students
+ * who are in no class and classes with free seats, so every call takes the
+ * full path (existence check, timetable claim, seat claim, enrollment insert)
+ * and leaves the data as it found it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrollmentBenchmark {
+    @Param({"10000", "100000"})
+    private int students;
+
+    private SimsContext sims;
+    private StudentService studentService;
+    private List<String> studentIds;
+    private List<String> scheduleIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sims = SimsContext.start(students);
+        studentService = sims.bean(StudentService.class);
+        studentIds = sims.dataset().unenrolledStudentIds();
+        scheduleIds = sims.dataset().openScheduleIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sims.close();
+    }
+
+    @Benchmark
+    public EnrollmentResult.Status enrollAndUnenroll() {
+        int i = next++;
+        String studentId = studentIds.get(i % studentIds.size());
+        String scheduleId = scheduleIds.get(i % scheduleIds.size());
+        EnrollmentResult.Status status = studentService.enrollInSchedule(studentId, scheduleId);
+        studentService.unenrollFromSchedule(studentId, scheduleId);
+        return status;
+    }
+}
@@ -0,0 +1,200 @@
+package com.sims.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HTTP load against the application in both execution modes, platform
+ * request threads and virtual ones ({@code spring.threads.virtual.enabled}),
+ * reporting throughput and latency percentiles per endpoint. A fixed number
+ * of clients each send requests back to back for the measured period, after
+ * an unmeasured warmup, so the server always has that many requests open.
+ * <p>
+ * {@code java -cp benchmarks.jar com.sims.bench.LoadTest [list|enroll|report...]}
+ * runs every endpoint unless some are named. Sizes come from
+ * {@code -Dsims.load.students} (10000), {@code -Dsims.load.clients} (500),
+ * {@code -Dsims.load.duration} (30s) and {@code -Dsims.load.warmup} (10s); the
+ * dataset and server are those of {@link SimsContext}. Results are printed and
+ * written to {@code results/load-<commit>.json}. The virtual mode needs Java
+ * 21 or later; on older runtimes both runs use platform threads.
+ */
+public final class LoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+    private static final int STUDENTS = Integer.getInteger("sims.load.students", 10_000);
+    private static final int CLIENTS = Integer.getInteger("sims.load.clients", 500);
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("sims.load.duration", "30s"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("sims.load.warmup", "10s"));
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    enum Endpoint {
+        /** The first page of the student list. */
+        LIST,
+        /** Enrolling an unenrolled student in an open class; the untimed reversal follows each one. */
+        ENROLL,
+        /** The student PDF, rendered for every request as no report job has cached it. */
+        REPORT
+    }
+
+    record Result(String mode, String endpoint, int clients, long requests, long errors, double requestsPerSecond,
+                  double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Endpoint> endpoints = args.length == 0
+                ? List.of(Endpoint.values())
+                : Arrays.stream(args).map(arg -> Endpoint.valueOf(arg.toUpperCase(Locale.ROOT))).toList();
+        if (Runtime.version().feature() < 21) {
+            logger.warn("Java {} has no virtual threads; the virtual run will use platform threads too",
+                    Runtime.version().feature());
+        }
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            try (SimsContext sims = SimsContext.startServer(STUDENTS, "spring.threads.virtual.enabled=" + virtual)) {
+                for (Endpoint endpoint : endpoints) {
+                    logger.info("Warming up {} in {} mode", endpoint, mode);
+                    run(sims, endpoint, mode, WARMUP);
+                    logger.info("Measuring {} in {} mode with {} clients for {}s", endpoint, mode, CLIENTS,
+                            DURATION.toSeconds());
+                    results.add(run(sims, endpoint, mode, DURATION));
+                }
+            }
+        }
+
+        System.out.printf("%-9s %-7s %8s %9s %7s %10s %10s %10s%n",
+                "Mode", "Endpoint", "Clients", "Req/s", "Errors", "p50 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-9s %-7s %8d %9.1f %7d %10.1f %10.1f %10.1f%n", result.mode(),
+                    result.endpoint(), result.clients(), result.requestsPerSecond(), result.errors(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis());
+        }
+        File file = new File("results/load-" + BenchmarkMain.label() + ".json");
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, results);
+        logger.info("Results written to {}", file);
+    }
+
+    private static Result run(SimsContext sims, Endpoint endpoint, String mode, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+        String base = "http://localhost:" + sims.port();
+        List<String> studentIds = sims.dataset().unenrolledStudentIds();
+        List<String> scheduleIds = sims.dataset().openScheduleIds();
+        if (endpoint == Endpoint.ENROLL && CLIENTS > studentIds.size()) {
+            throw new IllegalArgumentException("Enrollment needs a student per client; the dataset has "
+                    + studentIds.size() + " unenrolled students");
+        }
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> workers = new ArrayList<>();
+        long[] errors = new long[CLIENTS];
+        try {
+            for (int c = 0; c < CLIENTS; c++) {
+                int worker = c;
+                Callable<long[]> task = () -> {
+                    Latencies latencies = new Latencies();
+                    for (int i = 0; System.nanoTime() < deadline; i++) {
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = switch (endpoint) {
+                                case LIST -> send(client, get(base + "/students/list")) == 200;
+                                case REPORT -> send(client, get(base + "/students/report")) == 200;
+                                case ENROLL -> send(client, post(base + "/students/" + studentIds.get(worker)
+                                        + "/enroll-schedule/" + scheduleIds.get(i % scheduleIds.size()))) == 302;
+                            };
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        latencies.add(System.nanoTime() - start);
+                        if (!ok) {
+                            errors[worker]++;
+                        }
+                        if (endpoint == Endpoint.ENROLL) {
+                            try {
+                                send(client, post(base + "/students/" + studentIds.get(worker)
+                                        + "/unenroll-schedule/" + scheduleIds.get(i % scheduleIds.size())));
+                            } catch (Exception e) {
+                                errors[worker]++;
+                            }
+                        }
+                    }
+                    return latencies.toArray();
+                };
+                workers.add(clients.submit(task));
+            }
+            List<long[]> perWorker = new ArrayList<>();
+            for (Future<long[]> worker : workers) {
+                perWorker.add(worker.get());
+            }
+            long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(mode, endpoint.name().toLowerCase(Locale.ROOT), CLIENTS, all.length,
+                    Arrays.stream(errors).sum(), all.length / (duration.toNanos() / 1e9),
+                    millis(percentile(all, 0.50)), millis(percentile(all, 0.99)),
+                    millis(all.length == 0 ? 0 : all[all.length - 1]));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    // Reads the whole body, so the time includes transferring it
+    private static int send(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /** A growable array of request times, so a busy client does not box every sample. */
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
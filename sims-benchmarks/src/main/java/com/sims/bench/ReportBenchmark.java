@@ -0,0 +1,58 @@
+package com.sims.bench;
+
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/** Rendering the PDF reports, streamed into a sink so only generation is timed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"10000", "100000"})
+    private int students;
+
+    private SimsContext sims;
+    private StudentService studentService;
+    private ClassScheduleService classScheduleService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sims = SimsContext.start(students);
+        studentService = sims.bean(StudentService.class);
+        classScheduleService = sims.bean(ClassScheduleService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sims.close();
+    }
+
+    @Benchmark
+    public void studentReport() {
+        studentService.writeStudentReport(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void scheduleReport() {
+        classScheduleService.writeScheduleReport(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,330 @@
+package com.sims.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import com.sims.search.SearchTokens;
+import com.sims.timetable.ScheduleTimes;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Seeds a database with a synthetic school that looks like a real one to the
+ * services: names drawn from a skewed vocabulary, so some search terms match
+ * thousands of students and others a handful, and class rosters whose sizes
+ * follow a Zipf curve, from a few lecture halls with thousands of seats down
+ * to seminars of five. Every room and instructor teaches at most one class per
+ * hourly slot and no student holds two classes in the same slot, so the data
+ * passes the same clash checks the application applies.
+ * <p>
+ * The same {@link Spec} always produces the same school. Each spec gets its own
+ * database, and a manifest written once loading finishes lets later runs reuse
+ * it instead of seeding again.
+ */
+public final class SchoolDataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SchoolDataGenerator.class);
+    private static final String MANIFEST = "bench_manifest";
+    private static final int BATCH_SIZE = 5000;
+    private static final int FIRST_HOUR = 8;
+    private static final int SLOTS_PER_DAY = 10;
+    private static final int CLASSES_PER_INSTRUCTOR = 5;
+    private static final double ROSTER_SKEW = 1.0;
+    private static final int MIN_ROSTER = 5;
+    private static final int MAX_ROSTER = 2000;
+    // One in twenty classes is full with a waitlist
+    private static final int FULL_EVERY = 20;
+    private static final int WAITLIST_SIZE = 10;
+    // Students left out of every class, so enrollment benchmarks never hit a clash
+    private static final int UNENROLLED_STUDENTS = 1000;
+    private static final int SAMPLE_SIZE = 10;
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Betty", "Mark", "Sandra", "Donald", "Margaret",
+            "Steven", "Ashley", "Andrew", "Kimberly", "Paul", "Emily", "Joshua", "Donna", "Kenneth", "Michelle",
+            "Kevin", "Carol", "Brian", "Amanda", "Timothy", "Melissa", "Ronald", "Deborah", "George", "Stephanie",
+            "Jason", "Rebecca", "Edward", "Sharon", "Jeffrey", "Laura", "Ryan", "Cynthia", "Jacob", "Dorothy"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts",
+            "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins", "Reyes",
+            "Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan", "Cooper",
+            "Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos", "Kim", "Cox", "Ward", "Richardson"};
+    private static final String[] SUBJECTS = {
+            "Algebra", "Geometry", "Calculus", "Statistics", "Biology", "Chemistry", "Physics", "Earth Science",
+            "English Literature", "Creative Writing", "World History", "American History", "Geography", "Economics",
+            "Spanish", "French", "German", "Latin", "Computer Science", "Art", "Music", "Drama", "Physical Education",
+            "Health", "Psychology"};
+
+    /** Dataset size and shape; {@code classesPerStudent} is the average before rosters are capped. */
+    public record Spec(int students, int schedules, double classesPerStudent, long seed) {
+        public Spec {
+            if (students <= UNENROLLED_STUDENTS || schedules < SLOTS_PER_DAY) {
+                throw new IllegalArgumentException("Need more than " + UNENROLLED_STUDENTS + " students and at least "
+                        + SLOTS_PER_DAY + " schedules");
+            }
+        }
+
+        public String databaseName() {
+            return "sims-bench-" + students + "-" + schedules + "-" + seed;
+        }
+    }
+
+    /**
+     * What the benchmarks need to know about a seeded database. Schedule
+     * samples are ordered from the largest roster down.
+     */
+    public record Dataset(Spec spec, String mongoUri, List<String> unenrolledStudentIds,
+                          List<String> largeScheduleIds, List<String> smallScheduleIds,
+                          List<String> openScheduleIds, long enrollments) {
+    }
+
+    private SchoolDataGenerator() {
+    }
+
+    /**
+     * Returns the dataset for {@code spec} on the server at {@code serverUri}
+     * (without a database name), seeding it first unless a complete copy is
+     * already there. Classes left over from {@link #addSchedule} are dropped.
+     */
+    public static Dataset ensure(String serverUri, Spec spec) {
+        String uri = serverUri.replaceAll("/+$", "") + "/" + spec.databaseName();
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, spec.databaseName());
+            Document manifest = mongoTemplate.findById("manifest", Document.class, MANIFEST);
+            if (manifest != null) {
+                removeExtraSchedules(mongoTemplate);
+                logger.info("Reusing {} ({} enrollments)", spec.databaseName(), manifest.get("enrollments"));
+                return datasetOf(spec, uri, manifest);
+            }
+            mongoTemplate.getDb().drop();
+            long start = System.nanoTime();
+            Document seeded = seed(mongoTemplate, spec);
+            mongoTemplate.save(seeded, MANIFEST);
+            logger.info("Seeded {} with {} enrollments in {} s", spec.databaseName(), seeded.get("enrollments"),
+                    (System.nanoTime() - start) / 1_000_000_000);
+            return datasetOf(spec, uri, seeded);
+        }
+    }
+
+    /**
+     * Inserts one extra class with {@code roster} students sampled from the
+     * seeded body, for benchmarks that use up a class per invocation. Its room
+     * is its own, so it never clashes with the seeded timetable.
+     */
+    public static String addSchedule(MongoTemplate mongoTemplate, int roster) {
+        String scheduleId = new ObjectId().toHexString();
+        ClassSchedule schedule = schedule(scheduleId, "Extra " + scheduleId, "Guest Lecturer", "X-" + scheduleId,
+                FIRST_HOUR, roster + 1, roster);
+        mongoTemplate.insert(schedule);
+        List<Enrollment> enrollments = mongoTemplate.aggregate(
+                        Aggregation.newAggregation(Aggregation.sample(roster), Aggregation.project("_id")),
+                        Student.class, Document.class)
+                .getMappedResults().stream()
+                .map(student -> enrollment(student.get("_id").toString(), scheduleId))
+                .toList();
+        mongoTemplate.insert(enrollments, Enrollment.class);
+        return scheduleId;
+    }
+
+    /** Drops the classes {@link #addSchedule} inserted and their rosters, e.g. ones left by an aborted run. */
+    private static void removeExtraSchedules(MongoTemplate mongoTemplate) {
+        Query extras = Query.query(Criteria.where("room").regex("^X-"));
+        extras.fields().include("id");
+        List<String> ids = mongoTemplate.find(extras, ClassSchedule.class).stream().map(ClassSchedule::getId).toList();
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("scheduleId").in(ids)), Enrollment.class);
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), ClassSchedule.class);
+        }
+    }
+
+    private static Document seed(MongoTemplate mongoTemplate, Spec spec) {
+        Random random = new Random(spec.seed());
+        String[] studentIds = new String[spec.students()];
+        List<Student> students = new ArrayList<>(BATCH_SIZE);
+        double[] firstNames = zipf(FIRST_NAMES.length, 1.0);
+        double[] lastNames = zipf(LAST_NAMES.length, 1.0);
+        for (int i = 0; i < studentIds.length; i++) {
+            studentIds[i] = new ObjectId().toHexString();
+            students.add(student(studentIds[i], i, random, firstNames, lastNames));
+            if (students.size() == BATCH_SIZE) {
+                mongoTemplate.insert(students, Student.class);
+                students.clear();
+            }
+        }
+        mongoTemplate.insert(students, Student.class);
+        logger.info("Inserted {} students", studentIds.length);
+
+        // Ranks are shuffled so the big lectures are spread over rooms and slots
+        int enrollable = spec.students() - UNENROLLED_STUDENTS;
+        double[] weights = zipf(spec.schedules(), ROSTER_SKEW);
+        double totalWeight = weights[weights.length - 1];
+        List<Integer> ranks = new ArrayList<>(IntStream.range(0, spec.schedules()).boxed().toList());
+        Collections.shuffle(ranks, random);
+        double targetSeats = enrollable * spec.classesPerStudent();
+
+        // One bit per hourly slot each student is already taken in
+        short[] busy = new short[enrollable];
+        int[] rosters = new int[spec.schedules()];
+        String[] scheduleIds = new String[spec.schedules()];
+        List<ClassSchedule> schedules = new ArrayList<>(BATCH_SIZE);
+        List<Enrollment> enrollments = new ArrayList<>(BATCH_SIZE);
+        List<String> open = new ArrayList<>();
+        long seats = 0;
+        for (int k = 0; k < spec.schedules(); k++) {
+            int rank = ranks.get(k);
+            double weight = rank == 0 ? weights[0] : weights[rank] - weights[rank - 1];
+            int wanted = (int) Math.max(MIN_ROSTER, Math.min(MAX_ROSTER, Math.round(targetSeats * weight / totalWeight)));
+            int slot = k % SLOTS_PER_DAY;
+            scheduleIds[k] = new ObjectId().toHexString();
+
+            Set<Integer> roster = new HashSet<>();
+            for (int attempt = 0; roster.size() < wanted && attempt < wanted * 20; attempt++) {
+                int candidate = random.nextInt(enrollable);
+                if ((busy[candidate] & (1 << slot)) == 0 && roster.add(candidate)) {
+                    busy[candidate] |= (short) (1 << slot);
+                }
+            }
+            boolean full = k % FULL_EVERY == 0;
+            int capacity = full ? roster.size() : roster.size() + Math.max(2, roster.size() / 10);
+            ClassSchedule schedule = schedule(scheduleIds[k],
+                    SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + (100 + random.nextInt(400)),
+                    "Dr. " + LAST_NAMES[(k / CLASSES_PER_INSTRUCTOR) % LAST_NAMES.length] + " " + (k / CLASSES_PER_INSTRUCTOR),
+                    "R-" + (k / SLOTS_PER_DAY), FIRST_HOUR + slot, capacity, roster.size());
+            if (full) {
+                while (schedule.getWaitlist().size() < WAITLIST_SIZE) {
+                    int candidate = random.nextInt(enrollable);
+                    if (!roster.contains(candidate) && !schedule.getWaitlist().contains(studentIds[candidate])) {
+                        schedule.getWaitlist().add(studentIds[candidate]);
+                    }
+                }
+            } else {
+                open.add(scheduleIds[k]);
+            }
+            rosters[k] = roster.size();
+            seats += roster.size();
+            schedules.add(schedule);
+            for (int student : roster) {
+                enrollments.add(enrollment(studentIds[student], scheduleIds[k]));
+            }
+            if (schedules.size() == BATCH_SIZE) {
+                mongoTemplate.insert(schedules, ClassSchedule.class);
+                schedules.clear();
+            }
+            if (enrollments.size() >= BATCH_SIZE) {
+                mongoTemplate.insert(enrollments, Enrollment.class);
+                enrollments.clear();
+            }
+        }
+        mongoTemplate.insert(schedules, ClassSchedule.class);
+        mongoTemplate.insert(enrollments, Enrollment.class);
+        logger.info("Inserted {} schedules and {} enrollments", spec.schedules(), seats);
+
+        Integer[] bySize = IntStream.range(0, spec.schedules()).boxed()
+                .sorted(Comparator.comparingInt((Integer k) -> rosters[k]).reversed())
+                .toArray(Integer[]::new);
+        return new Document("_id", "manifest")
+                .append("unenrolledStudents", Arrays.asList(studentIds).subList(enrollable, studentIds.length))
+                .append("largeSchedules", sample(scheduleIds, bySize, 0))
+                .append("smallSchedules", sample(scheduleIds, bySize, bySize.length - SAMPLE_SIZE))
+                .append("openSchedules", open.subList(0, Math.min(open.size(), 100)))
+                .append("enrollments", seats);
+    }
+
+    private static Student student(String id, int index, Random random, double[] firstNames, double[] lastNames) {
+        String firstName = FIRST_NAMES[pick(firstNames, random)];
+        String lastName = LAST_NAMES[pick(lastNames, random)];
+        Student student = Student.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email((firstName + "." + lastName + "." + index).toLowerCase(Locale.ROOT) + "@bench.example.edu")
+                .phone("+1" + (2_000_000_000L + index))
+                .gradeLevel("Grade " + (1 + random.nextInt(12)))
+                .address((1 + random.nextInt(9999)) + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " Street")
+                .guardianName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + lastName)
+                .enrollmentDate(LocalDate.of(2015, 9, 1).plusDays(random.nextInt(3650)))
+                .updatedAt(Instant.now())
+                .build();
+        SearchTokens.apply(student);
+        return student;
+    }
+
+    private static ClassSchedule schedule(String id, String className, String instructor, String room, int hour,
+                                          int capacity, int enrolled) {
+        ClassSchedule schedule = ClassSchedule.builder()
+                .id(id)
+                .className(className)
+                .instructor(instructor)
+                .time(String.format("%02d:00-%02d:00", hour, hour + 1))
+                .room(room)
+                .duration("60 minutes")
+                .maxCapacity(capacity)
+                .enrolledCount(enrolled)
+                .updatedAt(Instant.now())
+                .build();
+        SearchTokens.apply(schedule);
+        ScheduleTimes.apply(schedule);
+        return schedule;
+    }
+
+    private static Enrollment enrollment(String studentId, String scheduleId) {
+        return Enrollment.builder().studentId(studentId).scheduleId(scheduleId).enrolledAt(Instant.now()).build();
+    }
+
+    /** Cumulative Zipf weights for ranks {@code 0..n-1}. */
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private static List<String> sample(String[] scheduleIds, Integer[] order, int from) {
+        return Arrays.stream(order, Math.max(0, from), Math.min(order.length, Math.max(0, from) + SAMPLE_SIZE))
+                .map(k -> scheduleIds[k])
+                .toList();
+    }
+
+    private static Dataset datasetOf(Spec spec, String uri, Document manifest) {
+        return new Dataset(spec, uri,
+                manifest.getList("unenrolledStudents", String.class),
+                manifest.getList("largeSchedules", String.class),
+                manifest.getList("smallSchedules", String.class),
+                manifest.getList("openSchedules", String.class),
+                ((Number) manifest.get("enrollments")).longValue());
+    }
+}
@@ -0,0 +1,74 @@
+package com.sims.bench;
+
+import com.sims.model.CursorPage;
+import com.sims.model.StudentRow;
+import com.sims.model.Suggestion;
+import com.sims.search.TypeaheadIndex;
+import com.sims.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency against the size of the student body: the indexed prefix
+ * search behind the search page, and the in-memory typeahead. Terms range
+ * from the most common surname to a rare one, a short prefix and a two-word
+ * query, so the result counts span a few rows to tens of thousands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int students;
+
+    @Param({"smith", "richardson", "ja", "mary smi"})
+    private String term;
+
+    private SimsContext sims;
+    private StudentService studentService;
+    private TypeaheadIndex typeaheadIndex;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sims = SimsContext.start(students);
+        studentService = sims.bean(StudentService.class);
+        typeaheadIndex = sims.bean(TypeaheadIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sims.close();
+    }
+
+    @Benchmark
+    public CursorPage<StudentRow> searchFirstPage() {
+        return studentService.searchStudents(term, 0, 25);
+    }
+
+    @Benchmark
+    public CursorPage<StudentRow> searchDeepPage() {
+        return studentService.searchStudents(term, 20, 25);
+    }
+
+    @Benchmark
+    public List<Suggestion> typeahead() {
+        return typeaheadIndex.suggest(term, Suggestion.Type.STUDENT, 10);
+    }
+}
@@ -0,0 +1,83 @@
+package com.sims.bench;
+
+import com.sims.SimsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application, without its web server, on top of a seeded dataset. The
+ * server is read from {@code -Dsims.bench.mongo-uri} and the generator seed
+ * from {@code -Dsims.bench.seed}; JMH passes both on to its forks.
+ * <p>
+ * The application loads its in-memory indexes and creates its Mongo indexes
+ * asynchronously once it is ready; {@link #start} waits for all of that, so
+ * measurements never overlap warmup.
+ */
+final class SimsContext implements AutoCloseable {
+    static final String MONGO_URI = System.getProperty("sims.bench.mongo-uri", "mongodb://localhost:27017");
+    static final long SEED = Long.getLong("sims.bench.seed", 42);
+    static final int SCHEDULES = Integer.getInteger("sims.bench.schedules", 2000);
+    static final double CLASSES_PER_STUDENT = 4;
+    private static final long WARMUP_TIMEOUT_MINUTES = 30;
+
+    private final SchoolDataGenerator.Dataset dataset;
+    private final ConfigurableApplicationContext context;
+
+    private SimsContext(SchoolDataGenerator.Dataset dataset, ConfigurableApplicationContext context) {
+        this.dataset = dataset;
+        this.context = context;
+    }
+
+    static SimsContext start(int students) {
+        return start(students, WebApplicationType.NONE);
+    }
+
+    /**
+     * The application with its web server on a random port, as the load test
+     * drives it; {@code properties} are added to the application's own, e.g.
+     * to switch the execution mode.
+     */
+    static SimsContext startServer(int students, String... properties) {
+        return start(students, WebApplicationType.SERVLET, properties);
+    }
+
+    private static SimsContext start(int students, WebApplicationType webApplicationType, String... properties) {
+        SchoolDataGenerator.Dataset dataset = SchoolDataGenerator.ensure(MONGO_URI,
+                new SchoolDataGenerator.Spec(students, SCHEDULES, CLASSES_PER_STUDENT, SEED));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SimsApplication.class)
+                .web(webApplicationType)
+                .properties("spring.data.mongodb.uri=" + dataset.mongoUri(),
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "sims.reports.cache-dir=${java.io.tmpdir}/sims-bench-reports")
+                .properties(properties)
+                .run();
+        // Every startup task runs on the common pool through CompletableFuture.runAsync
+        if (!ForkJoinPool.commonPool().awaitQuiescence(WARMUP_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            context.close();
+            throw new IllegalStateException("Application warmup did not finish within " + WARMUP_TIMEOUT_MINUTES + " minutes");
+        }
+        return new SimsContext(dataset, context);
+    }
+
+    SchoolDataGenerator.Dataset dataset() {
+        return dataset;
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
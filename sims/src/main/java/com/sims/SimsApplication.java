@@ -2,8 +2,10 @@ package com.sims;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
 @SpringBootApplication
+@EnableMongoAuditing
 public class SimsApplication {
     public static void main(String[] args) {
         SpringApplication.run(SimsApplication.class, args);
@@ -0,0 +1,128 @@
+package com.sims.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of {@link Student} and {@link ClassSchedule} by id,
+ * bounded by size and expiring entries after a fixed time. Every write path in
+ * the services evicts the ids it touches. Callers get their own copy of the
+ * cached entity, so changing it cannot leak into other requests. Hits, misses
+ * and evictions are published as the {@code cache.*} meters.
+ */
+@Component
+public class EntityCache {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+
+    private final boolean enabled;
+    private final Cache<String, Student> students;
+    private final Cache<String, ClassSchedule> schedules;
+
+    public EntityCache(@Value("${sims.cache.enabled:true}") boolean enabled,
+                       @Value("${sims.cache.max-size:10000}") long maxSize,
+                       @Value("${sims.cache.ttl:5m}") Duration ttl,
+                       MeterRegistry registry) {
+        this.enabled = enabled;
+        this.students = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.schedules = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, students, "students");
+        CaffeineCacheMetrics.monitor(registry, schedules, "schedules");
+        logger.info("Entity cache {} (max size {}, ttl {})", enabled ? "enabled" : "disabled", maxSize, ttl);
+    }
+
+    /**
+     * Returns the cached student or loads it; a {@code null} result from the
+     * loader is passed through and not cached.
+     */
+    public Student student(String id, Function<String, Student> loader) {
+        return enabled ? copy(students.get(id, loader)) : loader.apply(id);
+    }
+
+    public ClassSchedule schedule(String id, Function<String, ClassSchedule> loader) {
+        return enabled ? copy(schedules.get(id, loader)) : loader.apply(id);
+    }
+
+    public void evictStudent(String id) {
+        students.invalidate(id);
+    }
+
+    public void evictStudents(Collection<String> ids) {
+        students.invalidateAll(ids);
+    }
+
+    public void evictAllStudents() {
+        students.invalidateAll();
+    }
+
+    public void evictSchedule(String id) {
+        schedules.invalidate(id);
+    }
+
+    public void evictSchedules(Collection<String> ids) {
+        schedules.invalidateAll(ids);
+    }
+
+    public void evictAllSchedules() {
+        schedules.invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("students", describe(students));
+        stats.put("schedules", describe(schedules));
+        return stats;
+    }
+
+    private static Student copy(Student student) {
+        return student == null ? null : student.toBuilder()
+                .searchWords(listCopy(student.getSearchWords()))
+                .searchTokens(listCopy(student.getSearchTokens()))
+                .build();
+    }
+
+    private static ClassSchedule copy(ClassSchedule schedule) {
+        return schedule == null ? null : schedule.toBuilder()
+                .waitlist(listCopy(schedule.getWaitlist()))
+                .searchWords(listCopy(schedule.getSearchWords()))
+                .searchTokens(listCopy(schedule.getSearchTokens()))
+                .build();
+    }
+
+    private static List<String> listCopy(List<String> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictions", stats.evictionCount());
+        description.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return description;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sims.controller;
+
+import com.sims.service.ApiService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+/**
+ * Builds JSON API responses. Bodies go out with their entity tag and
+ * {@code no-cache}, so clients revalidate every time; Spring answers a
+ * matching {@code If-None-Match} or {@code If-Modified-Since} with 304 and
+ * no body.
+ */
+final class ApiResponses {
+
+    private ApiResponses() {
+    }
+
+    static ResponseEntity<?> ok(ApiService.Versioned<?> result, String notFound) {
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", notFound));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(result.eTag())
+                .cacheControl(CacheControl.noCache());
+        if (result.lastModified() != null) {
+            response.lastModified(result.lastModified());
+        }
+        return response.body(result.body());
+    }
+
+    static ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.sims.controller;
+
+import com.sims.cache.EntityCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/cache")
+public class CacheController {
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @GetMapping
+    public Map<String, Object> stats() {
+        return entityCache.stats();
+    }
+
+    @PostMapping("/clear")
+    public Map<String, Object> clear() {
+        entityCache.evictAllStudents();
+        entityCache.evictAllSchedules();
+        return entityCache.stats();
+    }
+}
@@ -1,23 +1,39 @@
 package com.sims.controller;
 
 import com.sims.model.ClassSchedule;
+import com.sims.model.CursorPage;
+import com.sims.model.EnrollmentResult;
+import com.sims.model.ReportType;
+import com.sims.model.ScheduleRow;
 import com.sims.model.Student;
 import com.sims.service.ClassScheduleService;
+import com.sims.service.DatasetVersions;
+import com.sims.service.ReportJobService;
+import com.sims.service.ReportRenderPool;
 import com.sims.service.StudentService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/schedules")
@@ -27,18 +43,27 @@ public class ClassScheduleController {
     @Autowired
     private ClassScheduleService service;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportRenderPool reportRenderPool;
+
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private DatasetVersions datasetVersions;
+
     @GetMapping("/add")
     public String showAddScheduleForm(Model model) {
         model.addAttribute("classSchedule", new ClassSchedule());
-        model.addAttribute("message", null);
         return "schedule";
     }
 
     @PostMapping("/add")
-    public String addSchedule(@Valid @ModelAttribute ClassSchedule classSchedule, BindingResult bindingResult, Model model) {
+    public String addSchedule(@Valid @ModelAttribute ClassSchedule classSchedule, BindingResult bindingResult, Model model,
+                              RedirectAttributes redirectAttributes) {
         logger.info("Received class schedule for addition: {}", classSchedule);
         if (bindingResult.hasErrors()) {
             model.addAttribute("message", "Validation errors occurred.");
@@ -46,43 +71,52 @@ public class ClassScheduleController {
         }
         try {
             service.addClassSchedule(classSchedule);
-            model.addAttribute("message", "Class schedule added successfully!");
-            model.addAttribute("classSchedule", new ClassSchedule());
+            redirectAttributes.addFlashAttribute("message", "Class schedule added successfully!");
+            return "redirect:/schedules/add";
         } catch (Exception e) {
             model.addAttribute("message", "Error during addition: " + e.getMessage());
             logger.error("Addition failed: {}", e.getMessage(), e);
+            return "schedule";
         }
-        return "schedule";
     }
 
     @GetMapping("/list")
-    public String showAllSchedules(Model model) {
-        model.addAttribute("schedules", service.getAllClassSchedules());
+    public String showAllSchedules(@RequestParam(required = false) String after,
+                                   @RequestParam(required = false) String before,
+                                   @RequestParam(defaultValue = "25") int size,
+                                   @RequestParam(defaultValue = "asc") String sort,
+                                   WebRequest request, HttpServletResponse response, Model model) {
+        if (ConditionalPages.notModified(request, response, model, datasetVersions, ReportType.SCHEDULES,
+                "list", after, before, size, sort)) {
+            return null;
+        }
+        CursorPage<ScheduleRow> page = service.getClassSchedulesPage(after, before, size, sort);
+        model.addAttribute("schedules", page.getContent());
+        model.addAttribute("page", page);
         return "schedules";
     }
 
     @GetMapping("/edit/{id}")
-    public String showEditScheduleForm(@PathVariable String id, Model model) {
+    public String showEditScheduleForm(@PathVariable String id, Model model, RedirectAttributes redirectAttributes) {
         try {
             ClassSchedule schedule = service.getClassScheduleById(id);
             if (schedule == null) {
-                model.addAttribute("message", "Schedule not found!");
-                model.addAttribute("schedules", service.getAllClassSchedules());
-                return "schedules";
+                redirectAttributes.addFlashAttribute("message", "Schedule not found!");
+                return "redirect:/schedules/list";
             }
             model.addAttribute("classSchedule", schedule);
             model.addAttribute("message", null);
             return "edit-schedule";
         } catch (Exception e) {
-            model.addAttribute("message", "Error retrieving schedule: " + e.getMessage());
             logger.error("Error retrieving schedule with ID {}: {}", id, e.getMessage(), e);
-            model.addAttribute("schedules", service.getAllClassSchedules());
-            return "schedules";
+            redirectAttributes.addFlashAttribute("message", "Error retrieving schedule: " + e.getMessage());
+            return "redirect:/schedules/list";
         }
     }
 
     @PostMapping("/edit/{id}")
-    public String updateSchedule(@PathVariable String id, @Valid @ModelAttribute ClassSchedule classSchedule, BindingResult bindingResult, Model model) {
+    public String updateSchedule(@PathVariable String id, @Valid @ModelAttribute ClassSchedule classSchedule,
+                                 BindingResult bindingResult, Model model, RedirectAttributes redirectAttributes) {
         logger.info("Received class schedule for update: {}", classSchedule);
         if (bindingResult.hasErrors()) {
             model.addAttribute("message", "Validation errors occurred.");
@@ -91,9 +125,8 @@ public class ClassScheduleController {
         try {
             classSchedule.setId(id);
             service.updateClassSchedule(classSchedule);
-            model.addAttribute("message", "Class schedule updated successfully!");
-            model.addAttribute("schedules", service.getAllClassSchedules());
-            return "schedules";
+            redirectAttributes.addFlashAttribute("message", "Class schedule updated successfully!");
+            return "redirect:/schedules/list";
         } catch (Exception e) {
             model.addAttribute("message", "Error during update: " + e.getMessage());
             logger.error("Update failed for schedule ID {}: {}", id, e.getMessage(), e);
@@ -102,61 +135,139 @@ public class ClassScheduleController {
         }
     }
 
+    @PostMapping("/delete")
+    public String deleteSchedules(@RequestParam(name = "ids", required = false) List<String> ids,
+                                  RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("message", "No class schedules selected.");
+        } else {
+            logger.info("Attempting to delete {} class schedules", ids.size());
+            try {
+                long deleted = service.deleteClassSchedules(ids);
+                redirectAttributes.addFlashAttribute("message", deleted + " class schedules deleted.");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("message", "Error during deletion: " + e.getMessage());
+                logger.error("Bulk deletion failed: {}", e.getMessage(), e);
+            }
+        }
+        return "redirect:/schedules/list";
+    }
+
     @PostMapping("/delete/{id}")
-    public String deleteSchedule(@PathVariable String id, Model model) {
+    public String deleteSchedule(@PathVariable String id, RedirectAttributes redirectAttributes) {
         logger.info("Attempting to delete schedule with ID: {}", id);
         try {
             service.deleteClassSchedule(id);
-            model.addAttribute("message", "Class schedule deleted successfully!");
+            redirectAttributes.addFlashAttribute("message", "Class schedule deleted successfully!");
         } catch (Exception e) {
-            model.addAttribute("message", "Error during deletion: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("message", "Error during deletion: " + e.getMessage());
             logger.error("Deletion failed for schedule ID {}: {}", id, e.getMessage(), e);
         }
-        model.addAttribute("schedules", service.getAllClassSchedules());
-        return "schedules";
+        return "redirect:/schedules/list";
     }
 
     @GetMapping("/search")
-    public String searchSchedules(@RequestParam String query, Model model) {
-        List<ClassSchedule> schedules = service.searchSchedules(query);
-        model.addAttribute("schedules", schedules);
+    public String searchSchedules(@RequestParam String query,
+                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(defaultValue = "25") int size,
+                                 WebRequest request, HttpServletResponse response, Model model) {
+        if (query.trim().isEmpty()) {
+            return "redirect:/schedules/list";
+        }
+        if (ConditionalPages.notModified(request, response, model, datasetVersions, ReportType.SCHEDULES,
+                "search", query, page, size)) {
+            return null;
+        }
+        CursorPage<ScheduleRow> results = service.searchSchedules(query, page, size);
+        model.addAttribute("schedules", results.getContent());
+        model.addAttribute("page", results);
         model.addAttribute("searchQuery", query);
         return "schedules";
     }
 
     @GetMapping("/report")
-    public ResponseEntity<byte[]> generateScheduleReport() {
-        byte[] report = service.generateScheduleReport();
+    public ResponseEntity<StreamingResponseBody> generateScheduleReport(HttpServletResponse response) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "schedules-report.pdf");
-        return ResponseEntity.ok().headers(headers).body(report);
+        // Serve the cached PDF when the data has not changed since it was built
+        Optional<Path> cached = reportJobService.findCachedReport(ReportType.SCHEDULES);
+        StreamingResponseBody body = cached
+                .<StreamingResponseBody>map(file -> out -> Files.copy(file, out))
+                .orElse(out -> {
+                    if (!reportRenderPool.render(out, service::writeScheduleReport)) {
+                        // Nothing has been written, so the response can still become a 503
+                        response.reset();
+                        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                    }
+                });
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/{id}/enroll-students")
-    public String showEnrollStudentsForm(@PathVariable String id, Model model) {
+    public String showEnrollStudentsForm(@PathVariable String id,
+                                         @RequestParam(required = false) String query,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) String before,
+                                         @RequestParam(defaultValue = "25") int size,
+                                         Model model) {
         ClassSchedule schedule = service.getClassScheduleById(id);
         if (schedule == null) {
             return "redirect:/schedules/list";
         }
-        List<Student> allStudents = studentService.getAllStudents();
-        List<String> enrolledStudentIds = schedule.getStudentIds();
-        List<Student> availableStudents = allStudents.stream()
-            .filter(s -> !enrolledStudentIds.contains(s.getId()))
-            .toList();
+        CursorPage<Student> page = studentService.getAvailableStudentsPage(schedule, query, after, before, size);
         model.addAttribute("schedule", schedule);
-        model.addAttribute("availableStudents", availableStudents);
+        model.addAttribute("availableStudents", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("searchQuery", query);
         return "enroll-student-to-schedule";
     }
 
     @PostMapping("/{id}/enroll-students")
-    public String enrollStudentsToSchedule(@PathVariable String id, @RequestParam String studentId, Model model) {
+    public String enrollStudentsToSchedule(@PathVariable String id, @RequestParam String studentId,
+                                           RedirectAttributes redirectAttributes) {
+        try {
+            EnrollmentResult.Status status = studentService.enrollInSchedule(studentId, id); // Note: Calling studentService.enrollInSchedule
+            if (status == EnrollmentResult.Status.WAITLISTED) {
+                return "redirect:/schedules/" + id + "/enroll-students?waitlisted=true";
+            }
+            return "redirect:/schedules/" + id + "/enroll-students?success=true";
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/schedules/" + id + "/enroll-students";
+        }
+    }
+
+    @PostMapping("/{id}/enroll-students/bulk")
+    public String bulkEnrollStudentsToSchedule(@PathVariable String id, @RequestParam List<String> studentIds,
+                                               RedirectAttributes redirectAttributes) {
         try {
-            studentService.enrollInSchedule(studentId, id); // Note: Calling studentService.enrollInSchedule
+            List<EnrollmentResult> results = studentService.enrollStudentsInSchedule(id, studentIds);
+            redirectAttributes.addFlashAttribute("enrollmentResults", results);
             return "redirect:/schedules/" + id + "/enroll-students?success=true";
         } catch (Exception e) {
-            model.addAttribute("error", e.getMessage());
-            return showEnrollStudentsForm(id, model);
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/schedules/" + id + "/enroll-students";
+        }
+    }
+
+    @GetMapping("/free-rooms")
+    @ResponseBody
+    public ResponseEntity<?> findFreeRooms(@RequestParam String time) {
+        try {
+            return ResponseEntity.ok(service.findFreeRooms(time));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping(path = "/{id}/enrollments", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> bulkEnroll(@PathVariable String id, @RequestBody List<String> studentIds) {
+        try {
+            return ResponseEntity.ok(studentService.enrollStudentsInSchedule(id, studentIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.sims.controller;
+
+import com.sims.model.ReportType;
+import com.sims.service.DatasetVersions;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Conditional GET for the HTML list pages. A page is tagged with the
+ * version of the dataset it shows plus its query parameters, so a browser
+ * revalidating an unchanged page gets 304 before anything is read from the
+ * database. Pages carrying a flash message are always rendered, or the
+ * message would be lost to the browser's cached copy. Dataset versions are
+ * counters raised by every write, see {@link DatasetVersions}.
+ */
+final class ConditionalPages {
+
+    private ConditionalPages() {
+    }
+
+    /** Returns true when the request was answered with 304 and the handler should return null. */
+    static boolean notModified(WebRequest request, HttpServletResponse response, Model model,
+                               DatasetVersions versions, ReportType dataset, Object... params) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (model.containsAttribute("message")) {
+            return false;
+        }
+        String key = versions.current(dataset) + Arrays.toString(params);
+        String eTag = "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + '"';
+        return request.checkNotModified(eTag);
+    }
+}
@@ -0,0 +1,73 @@
+package com.sims.controller;
+
+import com.sims.model.Enrollment;
+import com.sims.model.EnrollmentResult;
+import com.sims.service.ApiService;
+import com.sims.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Version 1 of the enrollment JSON API. Posting an enrollment takes a seat
+ * or, when the schedule is full, a place on its waitlist; the response says
+ * which.
+ */
+@RestController
+@RequestMapping("/api/v1/enrollments")
+public class EnrollmentApiController {
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentApiController.class);
+
+    @Autowired
+    private ApiService apiService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(required = false) String after,
+                                  @RequestParam(defaultValue = "25") int size,
+                                  @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.enrollmentsPage(after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id, @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.enrollment(id, fields), "Enrollment not found");
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> enroll(@RequestBody Enrollment request) {
+        try {
+            EnrollmentResult.Status status = studentService.enrollInSchedule(request.getStudentId(), request.getScheduleId());
+            return ResponseEntity.status(status == EnrollmentResult.Status.ENROLLED ? HttpStatus.CREATED : HttpStatus.ACCEPTED)
+                    .body(new EnrollmentResult(request.getStudentId(), status));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected enrollment of {} in {}: {}", request.getStudentId(), request.getScheduleId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> unenroll(@RequestParam String studentId, @RequestParam String scheduleId) {
+        try {
+            studentService.unenrollFromSchedule(studentId, scheduleId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
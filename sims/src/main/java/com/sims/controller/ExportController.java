@@ -0,0 +1,88 @@
+package com.sims.controller;
+
+import com.sims.model.DataFormat;
+import com.sims.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export for downstream systems, streamed from a cursor. {@code since}
+ * takes an ISO instant or date and limits the dump to documents modified from
+ * then on; {@code gzip=true} compresses the download.
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/{type}")
+    public ResponseEntity<?> export(@PathVariable String type,
+                                    @RequestParam(defaultValue = "ndjson") String format,
+                                    @RequestParam(required = false) String since,
+                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!type.equals("students") && !type.equals("schedules") && !type.equals("enrollments")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown export type: " + type));
+        }
+        DataFormat dataFormat = DataFormat.detect("." + format);
+        if (dataFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown format: " + format));
+        }
+        Instant sinceInstant;
+        try {
+            sinceInstant = parseSince(since);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "since must be an ISO instant or date: " + since));
+        }
+
+        String fileName = type + (dataFormat == DataFormat.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? GZIP : dataFormat == DataFormat.CSV ? CSV : NDJSON);
+        headers.setContentDispositionFormData("attachment", fileName);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                write(type, compressed, dataFormat, sinceInstant);
+                compressed.finish();
+            } else {
+                write(type, out, dataFormat, sinceInstant);
+            }
+        };
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private void write(String type, OutputStream out, DataFormat format, Instant since) throws IOException {
+        switch (type) {
+            case "students" -> exportService.writeStudents(out, format, since);
+            case "schedules" -> exportService.writeSchedules(out, format, since);
+            default -> exportService.writeEnrollments(out, format, since);
+        }
+    }
+
+    private static Instant parseSince(String since) {
+        if (since == null || since.isBlank()) {
+            return null;
+        }
+        if (since.length() == 10) {
+            return LocalDate.parse(since).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(since);
+    }
+}
@@ -0,0 +1,54 @@
+package com.sims.controller;
+
+import com.sims.model.DataFormat;
+import com.sims.model.ImportReport;
+import com.sims.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Bulk import. The request body is the raw CSV or NDJSON and is read as a
+ * stream, so uploads are never buffered whole. The format comes from the
+ * {@code format} parameter or, failing that, the content type.
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private static final Logger logger = LoggerFactory.getLogger(ImportController.class);
+
+    @Autowired
+    private ImportService importService;
+
+    @PostMapping("/{type}")
+    public ResponseEntity<?> importRows(@PathVariable String type,
+                                        @RequestParam(required = false) String format,
+                                        HttpServletRequest request) {
+        DataFormat importFormat = format != null
+                ? DataFormat.detect("." + format)
+                : DataFormat.detect(request.getContentType());
+        if (importFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Send text/csv or application/x-ndjson, or pass format=csv|ndjson"));
+        }
+        try {
+            ImportReport report = switch (type) {
+                case "students" -> importService.importStudents(request.getInputStream(), importFormat);
+                case "schedules" -> importService.importSchedules(request.getInputStream(), importFormat);
+                default -> null;
+            };
+            if (report == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown import type: " + type));
+            }
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            logger.error("Import of {} failed: {}", type, e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
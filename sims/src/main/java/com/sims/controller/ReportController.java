@@ -0,0 +1,72 @@
+package com.sims.controller;
+
+import com.sims.model.ReportJob;
+import com.sims.model.ReportType;
+import com.sims.service.ReportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @PostMapping("/{type}")
+    public ResponseEntity<?> submitReport(@PathVariable String type) {
+        ReportType reportType;
+        try {
+            reportType = ReportType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown report type: " + type));
+        }
+        try {
+            ReportJob job = reportJobService.submit(reportType);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            logger.warn("Report submission rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJob> getJob(@PathVariable String id) {
+        return reportJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadReport(@PathVariable String id) {
+        ReportJob job = reportJobService.getJob(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Report job is " + job.getStatus()));
+        }
+        Resource report = new FileSystemResource(job.getFile());
+        if (!report.exists()) {
+            // Superseded by a newer dataset version and evicted from the cache
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(Map.of("error", "Report has expired, submit a new job"));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", job.getType().getFileName());
+        return ResponseEntity.ok().headers(headers).body(report);
+    }
+}
@@ -0,0 +1,64 @@
+package com.sims.controller;
+
+import com.sims.model.ScheduleFilter;
+import com.sims.service.ApiService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Version 1 of the class schedule JSON API. Pages are keyset-paginated on
+ * id; {@code fields} takes a comma-separated list of columns.
+ */
+@RestController
+@RequestMapping("/api/v1/schedules")
+public class ScheduleApiController {
+
+    @Autowired
+    private ApiService apiService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(required = false) String after,
+                                  @RequestParam(defaultValue = "25") int size,
+                                  @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.schedulesPage(after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    /** Schedules matching the filter, ordered by start time; see {@link ScheduleFilter}. */
+    @GetMapping("/range")
+    public ResponseEntity<?> range(@ModelAttribute ScheduleFilter filter,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(defaultValue = "25") int size,
+                                   @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.schedulesInRange(filter, after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id, @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.schedule(id, fields), "Schedule not found");
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @GetMapping("/{id}/enrollments")
+    public ResponseEntity<?> enrollments(@PathVariable String id,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "25") int size,
+                                         @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.rosterPage(id, after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sims.controller;
+
+import com.sims.model.Suggestion;
+import com.sims.search.TypeaheadIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private static final int MAX_SUGGESTIONS = 25;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @GetMapping("/typeahead")
+    public List<Suggestion> typeahead(@RequestParam String q,
+                                      @RequestParam(required = false) Suggestion.Type type,
+                                      @RequestParam(defaultValue = "10") int limit) {
+        return typeaheadIndex.suggest(q, type, Math.min(limit, MAX_SUGGESTIONS));
+    }
+}
@@ -0,0 +1,49 @@
+package com.sims.controller;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.SolverRequest;
+import com.sims.service.ScheduleSolverService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Automatic placement of a batch of classes. {@code preview} returns a plan
+ * without writing anything; posting the plan's {@code placed} list to
+ * {@code commit} saves it.
+ */
+@RestController
+@RequestMapping("/schedules/solver")
+public class SolverController {
+    private static final Logger logger = LoggerFactory.getLogger(SolverController.class);
+
+    @Autowired
+    private ScheduleSolverService solverService;
+
+    @PostMapping("/preview")
+    public ResponseEntity<?> preview(@RequestBody SolverRequest request) {
+        try {
+            return ResponseEntity.ok(solverService.preview(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/commit")
+    public ResponseEntity<?> commit(@RequestBody List<ClassSchedule> placements) {
+        try {
+            List<ClassSchedule> saved = solverService.commit(placements);
+            return ResponseEntity.ok(Map.of("inserted", saved.size(),
+                    "ids", saved.stream().map(ClassSchedule::getId).toList()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected solver commit: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sims.controller;
+
+import com.sims.service.ApiService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Version 1 of the student JSON API. Pages are keyset-paginated on id;
+ * {@code fields} takes a comma-separated list of columns.
+ */
+@RestController
+@RequestMapping("/api/v1/students")
+public class StudentApiController {
+
+    @Autowired
+    private ApiService apiService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(required = false) String after,
+                                  @RequestParam(defaultValue = "25") int size,
+                                  @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.studentsPage(after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id, @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.student(id, fields), "Student not found");
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+
+    @GetMapping("/{id}/enrollments")
+    public ResponseEntity<?> enrollments(@PathVariable String id,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "25") int size,
+                                         @RequestParam(required = false) String fields) {
+        try {
+            return ApiResponses.ok(apiService.timetablePage(id, after, size, fields), null);
+        } catch (IllegalArgumentException e) {
+            return ApiResponses.badRequest(e);
+        }
+    }
+}
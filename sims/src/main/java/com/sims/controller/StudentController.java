@@ -1,20 +1,35 @@
 package com.sims.controller;
 
+import com.sims.model.CursorPage;
+import com.sims.model.EnrollmentResult;
+import com.sims.model.ReportType;
 import com.sims.model.Student;
+import com.sims.model.StudentRow;
+import com.sims.service.DatasetVersions;
+import com.sims.service.ReportJobService;
+import com.sims.service.ReportRenderPool;
 import com.sims.service.StudentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/students")
@@ -24,15 +39,24 @@ public class StudentController {
     @Autowired
     private StudentService service;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportRenderPool reportRenderPool;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
     @GetMapping("/enroll")
     public String showEnrollForm(Model model) {
         model.addAttribute("student", new Student());
-        model.addAttribute("message", null);
         return "enroll";
     }
 
     @PostMapping("/enroll")
-    public String enroll(@Valid @ModelAttribute Student student, BindingResult bindingResult, Model model) {
+    public String enroll(@Valid @ModelAttribute Student student, BindingResult bindingResult, Model model,
+                         RedirectAttributes redirectAttributes) {
         logger.info("Received student for enrollment: {}", student);
         if (bindingResult.hasErrors()) {
             model.addAttribute("message", "Validation errors occurred.");
@@ -40,43 +64,53 @@ public class StudentController {
         }
         try {
             service.enrollStudent(student);
-            model.addAttribute("message", "Student enrolled successfully!");
-            model.addAttribute("student", new Student());
+            redirectAttributes.addFlashAttribute("message", "Student enrolled successfully!");
+            return "redirect:/students/enroll";
         } catch (Exception e) {
             model.addAttribute("message", "Error during enrollment: " + e.getMessage());
             logger.error("Enrollment failed: {}", e.getMessage(), e);
+            return "enroll";
         }
-        return "enroll";
     }
 
     @GetMapping("/list")
-    public String showAllStudents(Model model) {
-        model.addAttribute("students", service.getAllStudents());
+    public String showAllStudents(@RequestParam(required = false) String after,
+                                  @RequestParam(required = false) String before,
+                                  @RequestParam(defaultValue = "25") int size,
+                                  @RequestParam(defaultValue = "asc") String sort,
+                                  WebRequest request, HttpServletResponse response, Model model) {
+        if (ConditionalPages.notModified(request, response, model, datasetVersions, ReportType.STUDENTS,
+                "list", after, before, size, sort)) {
+            return null;
+        }
+        CursorPage<StudentRow> page = service.getStudentsPage(after, before, size, sort);
+        model.addAttribute("students", page.getContent());
+        model.addAttribute("scheduleCounts", service.countSchedules(page.getContent()));
+        model.addAttribute("page", page);
         return "students";
     }
 
     @GetMapping("/edit/{id}")
-    public String showEditStudentForm(@PathVariable String id, Model model) {
+    public String showEditStudentForm(@PathVariable String id, Model model, RedirectAttributes redirectAttributes) {
         try {
             Student student = service.getStudentById(id);
             if (student == null) {
-                model.addAttribute("message", "Student not found!");
-                model.addAttribute("students", service.getAllStudents());
-                return "students";
+                redirectAttributes.addFlashAttribute("message", "Student not found!");
+                return "redirect:/students/list";
             }
             model.addAttribute("student", student);
             model.addAttribute("message", null);
             return "edit-student";
         } catch (Exception e) {
-            model.addAttribute("message", "Error retrieving student: " + e.getMessage());
             logger.error("Error retrieving student with ID {}: {}", id, e.getMessage(), e);
-            model.addAttribute("students", service.getAllStudents());
-            return "students";
+            redirectAttributes.addFlashAttribute("message", "Error retrieving student: " + e.getMessage());
+            return "redirect:/students/list";
         }
     }
 
     @PostMapping("/edit/{id}")
-    public String updateStudent(@PathVariable String id, @Valid @ModelAttribute Student student, BindingResult bindingResult, Model model) {
+    public String updateStudent(@PathVariable String id, @Valid @ModelAttribute Student student, BindingResult bindingResult,
+                                Model model, RedirectAttributes redirectAttributes) {
         logger.info("Received student for update: {}", student);
         if (bindingResult.hasErrors()) {
             model.addAttribute("message", "Validation errors occurred.");
@@ -85,9 +119,8 @@ public class StudentController {
         try {
             student.setId(id);
             service.updateStudent(student);
-            model.addAttribute("message", "Student updated successfully!");
-            model.addAttribute("students", service.getAllStudents());
-            return "students";
+            redirectAttributes.addFlashAttribute("message", "Student updated successfully!");
+            return "redirect:/students/list";
         } catch (Exception e) {
             model.addAttribute("message", "Error during update: " + e.getMessage());
             logger.error("Update failed for student ID {}: {}", id, e.getMessage(), e);
@@ -96,51 +129,107 @@ public class StudentController {
         }
     }
 
+    @PostMapping("/delete")
+    public String deleteStudents(@RequestParam(name = "ids", required = false) List<String> ids,
+                                 RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("message", "No students selected.");
+        } else {
+            logger.info("Attempting to delete {} students", ids.size());
+            try {
+                long deleted = service.deleteStudents(ids);
+                redirectAttributes.addFlashAttribute("message", deleted + " students deleted.");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("message", "Error during deletion: " + e.getMessage());
+                logger.error("Bulk deletion failed: {}", e.getMessage(), e);
+            }
+        }
+        return "redirect:/students/list";
+    }
+
     @PostMapping("/delete/{id}")
-    public String deleteStudent(@PathVariable String id, Model model) {
+    public String deleteStudent(@PathVariable String id, RedirectAttributes redirectAttributes) {
         logger.info("Attempting to delete student with ID: {}", id);
         try {
             boolean deleted = service.deleteStudent(id);
             if (deleted) {
-                model.addAttribute("message", "Student deleted successfully!");
+                redirectAttributes.addFlashAttribute("message", "Student deleted successfully!");
             } else {
-                model.addAttribute("message", "Student not found!");
+                redirectAttributes.addFlashAttribute("message", "Student not found!");
             }
         } catch (Exception e) {
-            model.addAttribute("message", "Error during deletion: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("message", "Error during deletion: " + e.getMessage());
             logger.error("Deletion failed for student ID {}: {}", id, e.getMessage(), e);
         }
-        model.addAttribute("students", service.getAllStudents());
-        return "students";
+        return "redirect:/students/list";
     }
 
     @PostMapping("/{studentId}/enroll-schedule/{scheduleId}")
-    public String enrollInSchedule(@PathVariable String studentId, @PathVariable String scheduleId, Model model) {
+    public String enrollInSchedule(@PathVariable String studentId, @PathVariable String scheduleId,
+                                   RedirectAttributes redirectAttributes) {
         try {
-            service.enrollInSchedule(studentId, scheduleId);
-            model.addAttribute("message", "Student enrolled in schedule successfully!");
+            EnrollmentResult.Status status = service.enrollInSchedule(studentId, scheduleId);
+            if (status == EnrollmentResult.Status.WAITLISTED) {
+                redirectAttributes.addFlashAttribute("message", "Schedule is full, student added to the waitlist.");
+            } else {
+                redirectAttributes.addFlashAttribute("message", "Student enrolled in schedule successfully!");
+            }
         } catch (Exception e) {
-            model.addAttribute("message", "Error during enrollment: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("message", "Error during enrollment: " + e.getMessage());
             logger.error("Enrollment in schedule failed: {}", e.getMessage(), e);
         }
-        model.addAttribute("students", service.getAllStudents());
-        return "students";
+        return "redirect:/students/list";
+    }
+
+    @PostMapping("/{studentId}/unenroll-schedule/{scheduleId}")
+    public String unenrollFromSchedule(@PathVariable String studentId, @PathVariable String scheduleId,
+                                       RedirectAttributes redirectAttributes) {
+        try {
+            service.unenrollFromSchedule(studentId, scheduleId);
+            redirectAttributes.addFlashAttribute("message", "Student removed from schedule successfully!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("message", "Error during unenrollment: " + e.getMessage());
+            logger.error("Unenrollment from schedule failed: {}", e.getMessage(), e);
+        }
+        return "redirect:/students/list";
     }
 
     @GetMapping("/search")
-    public String searchStudents(@RequestParam String query, Model model) {
-        List<Student> students = service.searchStudents(query);
-        model.addAttribute("students", students);
+    public String searchStudents(@RequestParam String query,
+                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(defaultValue = "25") int size,
+                                 WebRequest request, HttpServletResponse response, Model model) {
+        if (query.trim().isEmpty()) {
+            return "redirect:/students/list";
+        }
+        if (ConditionalPages.notModified(request, response, model, datasetVersions, ReportType.STUDENTS,
+                "search", query, page, size)) {
+            return null;
+        }
+        CursorPage<StudentRow> results = service.searchStudents(query, page, size);
+        model.addAttribute("students", results.getContent());
+        model.addAttribute("scheduleCounts", service.countSchedules(results.getContent()));
+        model.addAttribute("page", results);
         model.addAttribute("searchQuery", query);
         return "students";
     }
 
     @GetMapping("/report")
-    public ResponseEntity<byte[]> generateStudentReport() {
-        byte[] report = service.generateStudentReport();
+    public ResponseEntity<StreamingResponseBody> generateStudentReport(HttpServletResponse response) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "students-report.pdf");
-        return ResponseEntity.ok().headers(headers).body(report);
+        // Serve the cached PDF when the data has not changed since it was built
+        Optional<Path> cached = reportJobService.findCachedReport(ReportType.STUDENTS);
+        StreamingResponseBody body = cached
+                .<StreamingResponseBody>map(file -> out -> Files.copy(file, out))
+                .orElse(out -> {
+                    if (!reportRenderPool.render(out, service::writeStudentReport)) {
+                        // Nothing has been written, so the response can still become a 503
+                        response.reset();
+                        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                    }
+                });
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
\ No newline at end of file
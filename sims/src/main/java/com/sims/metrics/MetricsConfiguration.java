@@ -0,0 +1,31 @@
+package com.sims.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers {@link MongoCommandMetrics} on the Mongo client. It replaces
+ * Spring Boot's own command timer, which is switched off in the properties,
+ * because that one cannot tell which code sent a command. Service methods
+ * are timed through {@code @Timed}, and repository methods by Spring Data's
+ * {@code spring.data.repository.invocations} timer.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry registry,
+                                                   @Value("${sims.metrics.mongo.slow-threshold:100ms}") Duration slowThreshold) {
+        return new MongoCommandMetrics(registry, slowThreshold);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsListener(MongoCommandMetrics mongoCommandMetrics) {
+        return builder -> builder.addCommandListener(mongoCommandMetrics);
+    }
+}
@@ -0,0 +1,244 @@
+package com.sims.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every command the application sends to Mongo, tagged with the code
+ * that sent it: the repository method when the command came through a Spring
+ * Data repository, otherwise the first application method on the stack.
+ * Latency, documents returned and reply size are kept per command, collection
+ * and caller, so one page issuing hundreds of small finds, or one query
+ * returning far more than it shows, stands out.
+ * <p>
+ * Commands slower than the threshold are logged with their shape, the
+ * command with every literal replaced by {@code ?}, which groups the same
+ * query across values without logging any data. A threshold of zero turns the
+ * log off and with it the cost of building shapes.
+ */
+public class MongoCommandMetrics implements CommandListener {
+    private static final Logger logger = LoggerFactory.getLogger(MongoCommandMetrics.class);
+    private static final StackWalker STACK = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final String APPLICATION_PACKAGE = "com.sims.";
+    private static final String REPOSITORY_PACKAGE = "com.sims.repository.";
+    private static final int MAX_SHAPE_LENGTH = 500;
+    // The parts of a command that say what it does; the rest is session and cluster bookkeeping
+    private static final List<String> SHAPE_FIELDS = List.of("filter", "query", "pipeline", "sort", "projection",
+            "updates", "deletes", "key", "hint", "limit", "skip");
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+    private record Started(String collection, String caller, String shape) {
+    }
+
+    public MongoCommandMetrics(MeterRegistry registry, Duration slowThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String shape = slowThreshold.isZero() || slowThreshold.isNegative() ? null : shape(event.getCommandName(), command);
+        inFlight.put(event.getRequestId(), new Started(collection(event.getCommandName(), command), caller(), shape));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        Tags tags = Tags.of("command", event.getCommandName(), "collection", started.collection(),
+                "caller", started.caller());
+        Timer.builder("sims.mongo.commands")
+                .description("Mongo command latency by the code that sent it")
+                .tags(tags.and("status", "success"))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        BsonDocument reply = event.getResponse();
+        long documents = documents(reply);
+        long bytes = bytes(reply);
+        DistributionSummary.builder("sims.mongo.documents")
+                .description("Documents returned or written per Mongo command")
+                .tags(tags)
+                .register(registry)
+                .record(documents);
+        DistributionSummary.builder("sims.mongo.reply.bytes")
+                .description("Size of each Mongo reply")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry)
+                .record(bytes);
+        if (started.shape() != null && nanos >= slowThreshold.toNanos()) {
+            Counter.builder("sims.mongo.commands.slow").tags(tags).register(registry).increment();
+            logger.warn("Slow Mongo command from {} took {} ms, {} documents, {} bytes: {}", started.caller(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos), documents, bytes, started.shape());
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        Timer.builder("sims.mongo.commands")
+                .description("Mongo command latency by the code that sent it")
+                .tags("command", event.getCommandName(), "collection", started.collection(),
+                        "caller", started.caller(), "status", "failed")
+                .register(registry)
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The command with its literals replaced, e.g.
+     * {@code find students {filter: {searchTokens: {$all: [?]}}, sort: {_id: ?}, limit: ?}}.
+     * Arrays of documents keep each distinct element shape once, so a bulk
+     * write of a thousand identical updates reads as one.
+     */
+    static String shape(String commandName, BsonDocument command) {
+        StringBuilder shape = new StringBuilder(commandName).append(' ').append(collection(commandName, command)).append(" {");
+        boolean first = true;
+        for (String field : SHAPE_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                shape.append(", ");
+            }
+            first = false;
+            shape.append(field).append(": ");
+            appendShape(shape, value);
+            if (shape.length() > MAX_SHAPE_LENGTH) {
+                return shape.substring(0, MAX_SHAPE_LENGTH) + "...";
+            }
+        }
+        return shape.append('}').toString();
+    }
+
+    private static void appendShape(StringBuilder shape, BsonValue value) {
+        if (value.isDocument()) {
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                first = false;
+                shape.append(entry.getKey()).append(": ");
+                appendShape(shape, entry.getValue());
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            Set<String> elements = new LinkedHashSet<>();
+            for (BsonValue element : value.asArray()) {
+                StringBuilder elementShape = new StringBuilder();
+                appendShape(elementShape, element);
+                elements.add(elementShape.toString());
+                if (elements.size() > 20) {
+                    break;
+                }
+            }
+            shape.append('[').append(String.join(", ", elements)).append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+
+    private static String collection(String commandName, BsonDocument command) {
+        BsonValue target = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return target != null && target.isString() ? target.asString().getValue() : "none";
+    }
+
+    /** Rows in a cursor batch, or documents matched or written by other commands. */
+    private static long documents(BsonDocument reply) {
+        BsonValue cursor = reply.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().get("firstBatch");
+            if (batch == null) {
+                batch = cursor.asDocument().get("nextBatch");
+            }
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue n = reply.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    // Replies arrive as raw BSON, so their size is known without encoding them again
+    private static long bytes(BsonDocument reply) {
+        RawBsonDocument raw = reply instanceof RawBsonDocument document
+                ? document
+                : new RawBsonDocument(reply, new BsonDocumentCodec());
+        return raw.getByteBuffer().remaining();
+    }
+
+    /**
+     * The repository method or application method that issued the command.
+     * Listeners run on the calling thread for the synchronous driver, so the
+     * stack still holds it; cursor batches fetched later are attributed to
+     * whatever code is iterating.
+     */
+    private static String caller() {
+        return STACK.walk(frames -> frames
+                .map(MongoCommandMetrics::describe)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse("other"));
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        Class<?> type = frame.getDeclaringClass();
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> contract : type.getInterfaces()) {
+                if (contract.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return contract.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return null;
+        }
+        String name = type.getName();
+        // Skips this listener and Spring's generated subclasses
+        if (!name.startsWith(APPLICATION_PACKAGE) || type == MongoCommandMetrics.class || name.contains("$$")) {
+            return null;
+        }
+        String method = frame.getMethodName();
+        // lambda$warmUp$0 was written as part of warmUp
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = end > 0 ? method.substring("lambda$".length(), end) : method;
+        }
+        String owner = type.getSimpleName();
+        if (type.isAnonymousClass() || owner.isEmpty()) {
+            owner = type.getEnclosingClass() != null ? type.getEnclosingClass().getSimpleName() : name;
+        }
+        return owner + "." + method;
+    }
+}
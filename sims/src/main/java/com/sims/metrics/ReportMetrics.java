@@ -0,0 +1,68 @@
+package com.sims.metrics;
+
+import com.sims.model.ReportType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Times report generation and measures the size of what it wrote, whether
+ * the report goes to the response or into the report cache.
+ */
+@Component
+public class ReportMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public void record(ReportType type, OutputStream out, Consumer<OutputStream> writer) {
+        String tag = type.name().toLowerCase();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "failure";
+        try {
+            writer.accept(counting);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("sims.reports.generation")
+                    .description("Time to generate a PDF report")
+                    .tags("type", tag, "outcome", outcome)
+                    .register(registry));
+            if ("success".equals(outcome)) {
+                DistributionSummary.builder("sims.reports.size")
+                        .description("Size of each generated PDF report")
+                        .baseUnit("bytes")
+                        .tags("type", tag)
+                        .register(registry)
+                        .record(counting.count);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
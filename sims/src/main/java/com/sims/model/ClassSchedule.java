@@ -1,18 +1,22 @@
 package com.sims.model;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ClassSchedule {
@@ -35,10 +39,37 @@ public class ClassSchedule {
     @NotBlank(message = "Duration is required")
     private String duration;
 
-    @NotBlank(message = "Max capacity is required")
-    @Pattern(regexp = "^[1-9][0-9]*$", message = "Max capacity must be a positive number")
-    private String maxCapacity;
+    // Stored as a number; documents from before still hold the digits as a string and are converted on read
+    @NotNull(message = "Max capacity is required")
+    @Min(value = 1, message = "Max capacity must be a positive number")
+    private Integer maxCapacity;
+
+    // Typed copies of time and duration maintained by ScheduleTimes, so Mongo can index and range-query them
+    private Integer startMinute;
+
+    private Integer endMinute;
+
+    private Integer durationMinutes;
+
+    // Seats taken; the roster itself lives in the enrollment collection. A seat is
+    // claimed with a conditional $inc before its enrollment is written
+    private int enrolledCount;
+
+    // Student ids waiting for a seat, promoted in order when one frees up
+    @Builder.Default
+    private List<String> waitlist = new ArrayList<>();
+
+    // Stamped by auditing on save and by every partial update; drives incremental exports
+    @LastModifiedDate
+    private Instant updatedAt;
+
+    // Raised together with updatedAt by every update; the API builds its ETags from it
+    private long version;
+
+    // Normalized search fields maintained by SearchTokens; never edited directly
+    @Builder.Default
+    private List<String> searchWords = new ArrayList<>();
 
     @Builder.Default
-    private List<String> studentIds = new ArrayList<>();
+    private List<String> searchTokens = new ArrayList<>();
 }
\ No newline at end of file
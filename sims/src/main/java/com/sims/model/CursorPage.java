@@ -0,0 +1,25 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content = new ArrayList<>();
+
+    // Opaque token for the next page (the last _id for list pages); null when there is none
+    private String nextCursor;
+
+    // Opaque token for the previous page; null on the first page
+    private String prevCursor;
+
+    private int size;
+
+    private String sort;
+}
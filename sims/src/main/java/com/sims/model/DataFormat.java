@@ -0,0 +1,22 @@
+package com.sims.model;
+
+public enum DataFormat {
+    CSV,
+    NDJSON;
+
+    /** Picks the format from a file name or content type, or returns null when neither says. */
+    public static DataFormat detect(String nameOrContentType) {
+        if (nameOrContentType == null) {
+            return null;
+        }
+        String value = nameOrContentType.toLowerCase();
+        if (value.endsWith(".csv") || value.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (value.endsWith(".ndjson") || value.endsWith(".jsonl")
+                || value.startsWith("application/x-ndjson") || value.startsWith("application/json")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * One seat held by one student in one class schedule. Rosters and timetables
+ * are read from this collection through the (scheduleId, studentId) and
+ * (studentId, scheduleId) indexes; the latter is unique.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Enrollment {
+    @Id
+    private String id;
+
+    private String studentId;
+
+    private String scheduleId;
+
+    private Instant enrolledAt;
+}
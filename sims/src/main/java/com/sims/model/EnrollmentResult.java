@@ -0,0 +1,16 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentResult {
+    public enum Status { ENROLLED, ALREADY_ENROLLED, NOT_FOUND, WAITLISTED, WAITLIST_FULL, FULL, CONFLICT }
+
+    private String studentId;
+
+    private Status status;
+}
@@ -0,0 +1,47 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one import run. Counts cover every row; {@code errors} keeps the
+ * first rejected rows only, with {@code errorsTruncated} set once the cap is hit.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private String type;
+
+    private DataFormat format;
+
+    private long rowsRead;
+
+    private long inserted;
+
+    private long duplicates;
+
+    private long invalid;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+
+        private String message;
+    }
+}
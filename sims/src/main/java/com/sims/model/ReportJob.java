@@ -0,0 +1,38 @@
+package com.sims.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String id;
+
+    private ReportType type;
+
+    private String datasetVersion;
+
+    private volatile Status status;
+
+    // True when the job was answered from a report already on disk
+    private boolean cached;
+
+    private Instant submittedAt;
+
+    private volatile Instant completedAt;
+
+    private volatile String error;
+
+    @JsonIgnore
+    private volatile Path file;
+}
@@ -0,0 +1,16 @@
+package com.sims.model;
+
+public enum ReportType {
+    STUDENTS("students-report.pdf"),
+    SCHEDULES("schedules-report.pdf");
+
+    private final String fileName;
+
+    ReportType(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -0,0 +1,32 @@
+package com.sims.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Range filter over the typed schedule fields. Every criterion is optional;
+ * times are {@code HH:MM} and bounds are inclusive.
+ */
+@Data
+@NoArgsConstructor
+public class ScheduleFilter {
+    private String startFrom;
+
+    private String startTo;
+
+    // Latest time the class may end
+    private String endBy;
+
+    private Integer minCapacity;
+
+    private Integer minDuration;
+
+    private Integer maxDuration;
+
+    private String room;
+
+    private String instructor;
+
+    // Only classes with at least one seat left
+    private boolean freeSeats;
+}
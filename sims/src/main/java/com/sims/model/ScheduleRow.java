@@ -0,0 +1,32 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The columns of the schedule list, read as a projection. The waitlist is
+ * counted by the server, so the list never loads the student ids on it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRow {
+    private String id;
+
+    private String className;
+
+    private String instructor;
+
+    private String time;
+
+    private String room;
+
+    private String duration;
+
+    private Integer maxCapacity;
+
+    private int enrolledCount;
+
+    private int waitlistSize;
+}
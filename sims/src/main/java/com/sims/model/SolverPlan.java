@@ -0,0 +1,25 @@
+package com.sims.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A proposed placement. {@code placed} holds the classes with their room and
+ * time filled in and can be sent back as is to commit the plan; classes no
+ * conflict-free position was found for are returned in {@code unplaced}.
+ */
+@Data
+@NoArgsConstructor
+public class SolverPlan {
+    private List<ClassSchedule> placed = new ArrayList<>();
+
+    private List<ClassSchedule> unplaced = new ArrayList<>();
+
+    private long elapsedMillis;
+
+    // Greedy constructions tried across all threads; the best one is returned
+    private int attempts;
+}
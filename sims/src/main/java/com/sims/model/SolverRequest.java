@@ -0,0 +1,37 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classes to place, with the rooms and time slots they may go into. The
+ * {@code time} and {@code room} of each class are ignored; everything else is
+ * kept as given. {@code timeBudgetMillis} falls back to
+ * {@code sims.solver.time-budget} when omitted.
+ */
+@Data
+@NoArgsConstructor
+public class SolverRequest {
+    private List<ClassSchedule> classes = new ArrayList<>();
+
+    private List<Room> rooms = new ArrayList<>();
+
+    // HH:MM-HH:MM, the same format as ClassSchedule.time
+    private List<String> slots = new ArrayList<>();
+
+    private Long timeBudgetMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Room {
+        private String name;
+
+        // Seats; a class only goes into a room that holds its maxCapacity. Unlimited when omitted
+        private Integer capacity;
+    }
+}
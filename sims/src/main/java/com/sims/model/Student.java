@@ -8,14 +8,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.LastModifiedDate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Student {
@@ -30,7 +31,7 @@ public class Student {
 
     @Email(message = "Invalid email format")
     @NotBlank(message = "Email is required")
-    @Indexed(unique = true)
+    // Unique; the index is built by IndexProvisioner
     private String email;
 
     @Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Invalid phone number format")
@@ -48,6 +49,17 @@ public class Student {
 
     private LocalDate enrollmentDate;
 
+    // Stamped by auditing on save and by every partial update; drives incremental exports
+    @LastModifiedDate
+    private Instant updatedAt;
+
+    // Raised together with updatedAt by every update; the API builds its ETags from it
+    private long version;
+
+    // Normalized search fields maintained by SearchTokens; never edited directly
+    @Builder.Default
+    private List<String> searchWords = new ArrayList<>();
+
     @Builder.Default
-    private List<String> scheduleIds = new ArrayList<>();
+    private List<String> searchTokens = new ArrayList<>();
 }
\ No newline at end of file
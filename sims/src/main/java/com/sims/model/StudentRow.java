@@ -0,0 +1,34 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of the student list, read as a projection so list and search
+ * pages skip the search token arrays and audit fields of {@link Student}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentRow {
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private String phone;
+
+    private String gradeLevel;
+
+    private String address;
+
+    private String guardianName;
+
+    private LocalDate enrollmentDate;
+}
@@ -0,0 +1,18 @@
+package com.sims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+    public enum Type { STUDENT, SCHEDULE }
+
+    private Type type;
+
+    private String id;
+
+    private String label;
+}
@@ -1,12 +1,37 @@
 package com.sims.repository;
 
 import com.sims.model.ClassSchedule;
+import com.sims.model.ScheduleRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
 
 public interface ClassScheduleRepository extends MongoRepository<ClassSchedule, String> {
-    @Query("{'$or': [{'className': {$regex: ?0, $options: 'i'}}, {'instructor': {$regex: ?0, $options: 'i'}}]}")
-    List<ClassSchedule> findByClassNameOrInstructorContainingIgnoreCase(String searchTerm);
-}
\ No newline at end of file
+    // List columns, with the waitlist counted on the server (expressions in find projections need MongoDB 4.4+)
+    String ROW_FIELDS = "{className: 1, instructor: 1, time: 1, room: 1, duration: 1, maxCapacity: 1, enrolledCount: 1,"
+            + " waitlistSize: {$size: {$ifNull: ['$waitlist', []]}}}";
+
+    // Every term must be a prefix of some word; rows matching whole words rank first
+    @Aggregation(pipeline = {
+            "{$match: {searchTokens: {$all: ?0}}}",
+            "{$addFields: {score: {$size: {$setIntersection: ['$searchWords', ?0]}}}}",
+            "{$sort: {score: -1, _id: 1}}",
+            "{$skip: ?1}",
+            "{$limit: ?2}",
+            "{$project: " + ROW_FIELDS + "}"
+    })
+    List<ScheduleRow> searchByTokens(List<String> terms, long skip, int limit);
+
+    // Keyset pagination on _id; unlike findAll(Pageable) these do not issue a count query
+    @Query(value = "{}", fields = ROW_FIELDS)
+    List<ScheduleRow> findRowsBy(Pageable pageable);
+
+    @Query(value = "{_id: {$gt: ?0}}", fields = ROW_FIELDS)
+    List<ScheduleRow> findRowsByIdGreaterThan(String id, Pageable pageable);
+
+    @Query(value = "{_id: {$lt: ?0}}", fields = ROW_FIELDS)
+    List<ScheduleRow> findRowsByIdLessThan(String id, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.sims.repository;
+
+import com.sims.model.Enrollment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface EnrollmentRepository extends MongoRepository<Enrollment, String> {
+    boolean existsByStudentIdAndScheduleId(String studentId, String scheduleId);
+
+    long countByScheduleId(String scheduleId);
+
+    long countByStudentId(String studentId);
+
+    List<Enrollment> findByScheduleId(String scheduleId, Pageable pageable);
+}
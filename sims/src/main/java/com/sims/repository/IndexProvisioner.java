@@ -0,0 +1,105 @@
+package com.sims.repository;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Every index the application's queries rely on, in one place. Spring Boot
+ * leaves {@code auto-index-creation} off, so annotations on the models build
+ * nothing; the indexes are declared here and built off the startup thread
+ * once the application is ready, after which each repository query is
+ * checked with {@link QueryPlanVerifier}. Components that depend on an index
+ * before writing, such as a migration relying on a unique key, call
+ * {@link #ensure} first.
+ */
+@Component
+public class IndexProvisioner {
+    private static final Logger logger = LoggerFactory.getLogger(IndexProvisioner.class);
+
+    static final Map<Class<?>, List<Index>> INDEXES = Map.of(
+            Student.class, List.of(
+                    new Index().on("email", Sort.Direction.ASC).unique(),
+                    // Every prefix of every name and email word, for search and the enroll page filter
+                    new Index().on("searchTokens", Sort.Direction.ASC),
+                    new Index().on("updatedAt", Sort.Direction.ASC)),
+            ClassSchedule.class, List.of(
+                    new Index().on("searchTokens", Sort.Direction.ASC),
+                    new Index().on("updatedAt", Sort.Direction.ASC),
+                    // Equality on room or instructor first, then the start time the listings sort and range on
+                    new Index().on("startMinute", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                    new Index().on("room", Sort.Direction.ASC).on("startMinute", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                    new Index().on("instructor", Sort.Direction.ASC).on("startMinute", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                    // Finds the schedules to pull deleted students from
+                    new Index().on("waitlist", Sort.Direction.ASC)),
+            Enrollment.class, List.of(
+                    // Timetables; unique, so a student holds at most one seat per schedule
+                    new Index().on("studentId", Sort.Direction.ASC).on("scheduleId", Sort.Direction.ASC).unique(),
+                    // Rosters
+                    new Index().on("scheduleId", Sort.Direction.ASC).on("studentId", Sort.Direction.ASC)));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Value("${sims.indexes.verify-plans:true}")
+    private boolean verifyPlans;
+
+    private final Set<Class<?>> provisioned = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void provision() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                INDEXES.keySet().forEach(this::ensure);
+                logger.info("Indexes provisioned in {} ms", (System.nanoTime() - start) / 1_000_000);
+                if (verifyPlans) {
+                    for (String probe : queryPlanVerifier.collectionScans()) {
+                        logger.warn("Query {} is answered by a collection scan", probe);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to provision indexes: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Builds the indexes declared for {@code type} unless that has already
+     * been done. An index that cannot be built, e.g. a unique index over data
+     * that holds duplicates, is logged and skipped so the others still are.
+     */
+    public synchronized void ensure(Class<?> type) {
+        if (provisioned.contains(type)) {
+            return;
+        }
+        for (Index index : INDEXES.getOrDefault(type, List.of())) {
+            try {
+                mongoTemplate.indexOps(type).createIndex(index);
+            } catch (Exception e) {
+                logger.warn("Failed to build index {} on {}: {}", index.getIndexKeys().toJson(),
+                        mongoTemplate.getCollectionName(type), e.getMessage());
+            }
+        }
+        provisioned.add(type);
+    }
+}
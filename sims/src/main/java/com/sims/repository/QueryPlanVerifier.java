@@ -0,0 +1,140 @@
+package com.sims.repository;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asks Mongo how it would answer each query the application sends, with
+ * {@code explain} at {@code queryPlanner} verbosity so nothing is executed,
+ * and reports those whose winning plan scans the whole collection. The
+ * probes mirror the repository methods and the template queries in the
+ * services; a new query should get a probe here.
+ */
+@Component
+public class QueryPlanVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /** One query to explain: the command as the driver would send it. */
+    record Probe(String name, Document command) {
+    }
+
+    /** Names of the probes whose winning plan includes a collection scan. */
+    public List<String> collectionScans() {
+        List<String> scans = new ArrayList<>();
+        for (Probe probe : probes()) {
+            try {
+                Document explain = mongoTemplate.getDb().runCommand(
+                        new Document("explain", probe.command()).append("verbosity", "queryPlanner"));
+                if (isCollectionScan(explain, false)) {
+                    scans.add(probe.name());
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to explain {}: {}", probe.name(), e.getMessage());
+            }
+        }
+        return scans;
+    }
+
+    List<Probe> probes() {
+        String students = mongoTemplate.getCollectionName(Student.class);
+        String schedules = mongoTemplate.getCollectionName(ClassSchedule.class);
+        String enrollments = mongoTemplate.getCollectionName(Enrollment.class);
+        ObjectId id = new ObjectId();
+        String studentId = id.toHexString();
+        String scheduleId = new ObjectId().toHexString();
+        Document byStart = new Document("startMinute", 1).append("_id", 1);
+        return List.of(
+                find("StudentRepository.findByEmail", students, new Document("email", "probe@example.com"), null),
+                search("StudentRepository.searchByTokens", students),
+                find("StudentRepository.findRowsByIdGreaterThan", students,
+                        new Document("_id", new Document("$gt", id)), new Document("_id", 1)),
+                find("ExportService.writeStudents (since)", students,
+                        new Document("updatedAt", new Document("$gt", new Date())), null),
+                search("ClassScheduleRepository.searchByTokens", schedules),
+                find("ClassScheduleRepository.findRowsByIdGreaterThan", schedules,
+                        new Document("_id", new Document("$gt", id)), new Document("_id", 1)),
+                find("ClassScheduleService.findSchedulesInRange (start)", schedules,
+                        new Document("startMinute", new Document("$gte", 480).append("$lt", 720)), byStart),
+                find("ClassScheduleService.findSchedulesInRange (room)", schedules,
+                        new Document("room", "A-101").append("startMinute", new Document("$gte", 480)), byStart),
+                find("ClassScheduleService.findSchedulesInRange (instructor)", schedules,
+                        new Document("instructor", "Dr. Smith").append("startMinute", new Document("$gte", 480)), byStart),
+                find("ExportService.writeSchedules (since)", schedules,
+                        new Document("updatedAt", new Document("$gt", new Date())), null),
+                find("ScheduleSeatService.releaseAll (waitlists)", schedules,
+                        new Document("waitlist", new Document("$in", List.of(studentId))), null),
+                find("EnrollmentRepository.existsByStudentIdAndScheduleId", enrollments,
+                        new Document("studentId", studentId).append("scheduleId", scheduleId), null),
+                find("EnrollmentRepository.countByScheduleId", enrollments, new Document("scheduleId", scheduleId), null),
+                find("EnrollmentRepository.countByStudentId", enrollments, new Document("studentId", studentId), null),
+                find("ApiService.rosterPage", enrollments,
+                        new Document("scheduleId", scheduleId).append("studentId", new Document("$gt", studentId)),
+                        new Document("studentId", 1)),
+                find("ApiService.timetablePage", enrollments,
+                        new Document("studentId", studentId).append("scheduleId", new Document("$gt", scheduleId)),
+                        new Document("scheduleId", 1)));
+    }
+
+    /**
+     * True when a {@code COLLSCAN} stage appears under a winning plan. Plans
+     * nest differently across server versions, sharded clusters and
+     * aggregations, so every {@code winningPlan} in the output is searched;
+     * rejected plans are ignored.
+     */
+    static boolean isCollectionScan(Object node, boolean winning) {
+        if (node instanceof Map<?, ?> document) {
+            for (Map.Entry<?, ?> entry : document.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (key.equals("rejectedPlans")) {
+                    continue;
+                }
+                boolean inWinningPlan = winning || key.equals("winningPlan");
+                if (inWinningPlan && key.equals("stage") && "COLLSCAN".equals(entry.getValue())) {
+                    return true;
+                }
+                if (isCollectionScan(entry.getValue(), inWinningPlan)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object element : list) {
+                if (isCollectionScan(element, winning)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Probe find(String name, String collection, Document filter, Document sort) {
+        Document command = new Document("find", collection).append("filter", filter).append("limit", 26);
+        if (sort != null) {
+            command.append("sort", sort);
+        }
+        return new Probe(name, command);
+    }
+
+    // Only the $match can use an index; the stages after it work on its output
+    private static Probe search(String name, String collection) {
+        Document match = new Document("$match", new Document("searchTokens", new Document("$all", List.of("ma", "smi"))));
+        return new Probe(name, new Document("aggregate", collection)
+                .append("pipeline", List.of(match, new Document("$limit", 26)))
+                .append("cursor", new Document()));
+    }
+}
@@ -1,8 +1,10 @@
 package com.sims.repository;
 
 import com.sims.model.Student;
+import com.sims.model.StudentRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +12,21 @@ import java.util.Optional;
 public interface StudentRepository extends MongoRepository<Student, String> {
     Optional<Student> findByEmail(String email);
 
-    @Query("{'$or': [{'firstName': {$regex: ?0, $options: 'i'}}, {'lastName': {$regex: ?0, $options: 'i'}}, {'email': {$regex: ?0, $options: 'i'}}]}")
-    List<Student> findByNameOrEmailContainingIgnoreCase(String searchTerm);
-}
\ No newline at end of file
+    // Every term must be a prefix of some word; rows matching whole words rank first
+    @Aggregation(pipeline = {
+            "{$match: {searchTokens: {$all: ?0}}}",
+            "{$addFields: {score: {$size: {$setIntersection: ['$searchWords', ?0]}}}}",
+            "{$sort: {score: -1, _id: 1}}",
+            "{$skip: ?1}",
+            "{$limit: ?2}",
+            "{$project: {firstName: 1, lastName: 1, email: 1, phone: 1, gradeLevel: 1, address: 1, guardianName: 1, enrollmentDate: 1}}"
+    })
+    List<StudentRow> searchByTokens(List<String> terms, long skip, int limit);
+
+    // Keyset pagination on _id; unlike findAll(Pageable) these do not issue a count query
+    List<StudentRow> findRowsBy(Pageable pageable);
+
+    List<StudentRow> findRowsByIdGreaterThan(String id, Pageable pageable);
+
+    List<StudentRow> findRowsByIdLessThan(String id, Pageable pageable);
+}
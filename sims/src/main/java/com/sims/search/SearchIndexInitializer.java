@@ -0,0 +1,88 @@
+package com.sims.search;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.ReportType;
+import com.sims.model.Student;
+import com.sims.service.DatasetVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Fills the search fields on documents written before they existed; their
+ * index is built by {@link com.sims.repository.IndexProvisioner}. Runs off
+ * the startup thread so an unreachable database does not hold up readiness.
+ */
+@Component
+public class SearchIndexInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexInitializer.class);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                int students = backfill(Student.class, SearchTokens::apply, Student::getId,
+                        student -> new Update().set("searchWords", student.getSearchWords()).set("searchTokens", student.getSearchTokens()),
+                        "firstName", "lastName", "email");
+                int schedules = backfill(ClassSchedule.class, SearchTokens::apply, ClassSchedule::getId,
+                        schedule -> new Update().set("searchWords", schedule.getSearchWords()).set("searchTokens", schedule.getSearchTokens()),
+                        "className", "instructor");
+                if (students + schedules > 0) {
+                    // Search results pages are tagged with these versions
+                    datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+                    logger.info("Backfilled search tokens on {} students and {} class schedules", students, schedules);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to initialize search indexes: {}", e.getMessage());
+            }
+        });
+    }
+
+    private <T> int backfill(Class<T> type, Consumer<T> tokenize, Function<T, String> idOf,
+                             Function<T, Update> update, String... fields) {
+        Query query = Query.query(Criteria.where("searchTokens").exists(false)).cursorBatchSize(BATCH_SIZE);
+        query.fields().include(fields);
+        int count = 0;
+        try (Stream<T> stream = mongoTemplate.stream(query, type)) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            int pending = 0;
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                T entity = iterator.next();
+                tokenize.accept(entity);
+                bulk.updateOne(Query.query(Criteria.where("id").is(idOf.apply(entity))), update.apply(entity));
+                count++;
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                bulk.execute();
+            }
+        }
+        return count;
+    }
+}
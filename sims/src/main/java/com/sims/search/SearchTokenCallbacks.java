@@ -0,0 +1,37 @@
+package com.sims.search;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+/**
+ * Refreshes the search fields whenever a whole entity is saved or inserted.
+ * Partial {@code $set} updates must refresh them explicitly.
+ */
+@Configuration
+public class SearchTokenCallbacks {
+
+    @Bean
+    public BeforeConvertCallback<Student> studentSearchTokens() {
+        return new BeforeConvertCallback<Student>() {
+            @Override
+            public Student onBeforeConvert(Student student, String collection) {
+                SearchTokens.apply(student);
+                return student;
+            }
+        };
+    }
+
+    @Bean
+    public BeforeConvertCallback<ClassSchedule> classScheduleSearchTokens() {
+        return new BeforeConvertCallback<ClassSchedule>() {
+            @Override
+            public ClassSchedule onBeforeConvert(ClassSchedule schedule, String collection) {
+                SearchTokens.apply(schedule);
+                return schedule;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.sims.search;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the normalized search fields stored on each document. {@code words}
+ * holds the lowercased words of the searchable fields and {@code tokens} every
+ * prefix of those words, so a prefix query becomes an exact match on an
+ * indexed multikey array instead of an unanchored, unindexable {@code $regex}.
+ */
+public final class SearchTokens {
+    static final int MAX_PREFIX_LENGTH = 15;
+    static final int MAX_QUERY_TERMS = 5;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokens() {
+    }
+
+    public static void apply(Student student) {
+        List<String> words = words(student.getFirstName(), student.getLastName(), student.getEmail());
+        student.setSearchWords(words);
+        student.setSearchTokens(prefixes(words));
+    }
+
+    public static void apply(ClassSchedule schedule) {
+        List<String> words = words(schedule.getClassName(), schedule.getInstructor());
+        schedule.setSearchWords(words);
+        schedule.setSearchTokens(prefixes(words));
+    }
+
+    /**
+     * Splits user input into the terms to look up. Terms are truncated to the
+     * longest indexed prefix; the result is empty when nothing searchable is left.
+     */
+    public static List<String> queryTerms(String searchTerm) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(searchTerm)) {
+            String term = word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word;
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+            if (terms.size() == MAX_QUERY_TERMS) {
+                break;
+            }
+        }
+        return terms;
+    }
+
+    static List<String> words(String... values) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String word : WORD_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    static List<String> prefixes(List<String> words) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String word : words) {
+            int longest = Math.min(word.length(), MAX_PREFIX_LENGTH);
+            for (int length = 1; length <= longest; length++) {
+                prefixes.add(word.substring(0, length));
+            }
+        }
+        return new ArrayList<>(prefixes);
+    }
+}
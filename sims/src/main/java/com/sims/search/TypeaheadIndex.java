@@ -0,0 +1,259 @@
+package com.sims.search;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import com.sims.model.Suggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index for autocomplete. Terms are kept in a sorted
+ * concurrent map, so a prefix lookup is a range scan that starts with a
+ * binary search and stops as soon as enough suggestions are found. The index
+ * is loaded once at startup and then updated by the services on every create,
+ * update and delete, including those made while it loads.
+ */
+@Component
+public class TypeaheadIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TypeaheadIndex.class);
+    private static final int WARMUP_BATCH_SIZE = 1000;
+    // Upper bound on documents examined per lookup when extra terms filter candidates out
+    private static final int MAX_SCANNED = 2000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Postings are looked up by hash; the sorted set of distinct terms only serves prefix range scans
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> terms = new ConcurrentSkipListSet<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object changesLock = new Object();
+    private List<Runnable> changesDuringLoad;
+
+    private record Entry(Suggestion suggestion, List<String> words) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Reads every student and schedule into the index. Changes made while it
+     * runs are applied at once and also recorded, then replayed over the
+     * loaded entries, since a cursor may return a document as it was before a
+     * change made during the load.
+     */
+    void load() {
+        synchronized (changesLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            Query students = new Query().cursorBatchSize(WARMUP_BATCH_SIZE);
+            students.fields().include("firstName", "lastName", "email");
+            try (Stream<Student> stream = mongoTemplate.stream(students, Student.class)) {
+                stream.forEach(student -> put(suggestion(student), words(student)));
+            }
+            Query schedules = new Query().cursorBatchSize(WARMUP_BATCH_SIZE);
+            schedules.fields().include("className", "instructor");
+            try (Stream<ClassSchedule> stream = mongoTemplate.stream(schedules, ClassSchedule.class)) {
+                stream.forEach(schedule -> put(suggestion(schedule), words(schedule)));
+            }
+            logger.info("Typeahead index loaded {} entries and {} terms in {} ms",
+                    entries.size(), terms.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Failed to load typeahead index: {}", e.getMessage());
+        } finally {
+            // Held while replaying so a change arriving now cannot be overtaken by an older recorded one
+            synchronized (changesLock) {
+                changesDuringLoad.forEach(Runnable::run);
+                changesDuringLoad = null;
+            }
+        }
+    }
+
+    public void put(Student student) {
+        Suggestion suggestion = suggestion(student);
+        List<String> words = words(student);
+        apply(() -> put(suggestion, words));
+    }
+
+    public void put(ClassSchedule schedule) {
+        Suggestion suggestion = suggestion(schedule);
+        List<String> words = words(schedule);
+        apply(() -> put(suggestion, words));
+    }
+
+    public void remove(Suggestion.Type type, String id) {
+        String key = key(type, id);
+        apply(() -> entries.computeIfPresent(key, (k, previous) -> {
+            unindex(key, previous.words(), List.of());
+            return null;
+        }));
+    }
+
+    /**
+     * Returns up to {@code limit} suggestions whose words start with every term
+     * of {@code prefix}, optionally restricted to one type.
+     */
+    public List<Suggestion> suggest(String prefix, Suggestion.Type type, int limit) {
+        List<String> queryTerms = SearchTokens.words(prefix);
+        if (queryTerms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        // Scan the range of the longest term, it is the most selective
+        String scanTerm = queryTerms.get(0);
+        for (String term : queryTerms) {
+            if (term.length() > scanTerm.length()) {
+                scanTerm = term;
+            }
+        }
+
+        Set<String> seen = new LinkedHashSet<>();
+        List<Suggestion> results = new ArrayList<>(limit);
+        int scanned = 0;
+        Iterator<String> range = terms.subSet(scanTerm, true, scanTerm + Character.MAX_VALUE, false).iterator();
+        while (range.hasNext() && results.size() < limit && scanned < MAX_SCANNED) {
+            Set<String> keys = postings.get(range.next());
+            if (keys == null) {
+                continue;
+            }
+            for (String key : keys) {
+                if (!seen.add(key) || ++scanned > MAX_SCANNED) {
+                    continue;
+                }
+                Entry entry = entries.get(key);
+                if (entry == null || (type != null && entry.suggestion().getType() != type)) {
+                    continue;
+                }
+                if (matchesAll(entry.words(), queryTerms)) {
+                    results.add(entry.suggestion());
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void apply(Runnable change) {
+        synchronized (changesLock) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        }
+        change.run();
+    }
+
+    private static Suggestion suggestion(Student student) {
+        String label = student.getFirstName() + " " + student.getLastName() + " <" + student.getEmail() + ">";
+        return new Suggestion(Suggestion.Type.STUDENT, student.getId(), label);
+    }
+
+    private static List<String> words(Student student) {
+        List<String> words = SearchTokens.words(student.getFirstName(), student.getLastName(), student.getEmail());
+        if (student.getEmail() != null) {
+            // The whole address too, so "ana.o" narrows to ana.oneil@...
+            words.add(student.getEmail().toLowerCase(Locale.ROOT));
+        }
+        return words;
+    }
+
+    private static Suggestion suggestion(ClassSchedule schedule) {
+        String label = schedule.getClassName() + " (" + schedule.getInstructor() + ")";
+        return new Suggestion(Suggestion.Type.SCHEDULE, schedule.getId(), label);
+    }
+
+    private static List<String> words(ClassSchedule schedule) {
+        return SearchTokens.words(schedule.getClassName(), schedule.getInstructor());
+    }
+
+    /**
+     * Replaces the entry and its postings inside one {@code compute} on its
+     * key, so concurrent changes to the same document are applied one after
+     * the other and never leave a stale term behind. Postings are changed
+     * per term with {@code compute} too, which keeps the term set in step and
+     * lets an emptied posting be dropped without racing a put of the term.
+     */
+    private void put(Suggestion suggestion, List<String> words) {
+        String key = key(suggestion.getType(), suggestion.getId());
+        entries.compute(key, (k, previous) -> {
+            if (previous != null) {
+                unindex(key, previous.words(), words);
+            }
+            for (String word : words) {
+                postings.compute(word, (w, keys) -> {
+                    if (keys == null) {
+                        keys = ConcurrentHashMap.newKeySet();
+                        terms.add(w);
+                    }
+                    keys.add(key);
+                    return keys;
+                });
+            }
+            return new Entry(suggestion, words);
+        });
+    }
+
+    /** Takes the key out of the postings of {@code words} it no longer has, dropping postings left empty. */
+    private void unindex(String key, List<String> words, List<String> kept) {
+        for (String word : words) {
+            if (kept.contains(word)) {
+                continue;
+            }
+            postings.computeIfPresent(word, (w, keys) -> {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    terms.remove(w);
+                    return null;
+                }
+                return keys;
+            });
+        }
+    }
+
+    private static boolean matchesAll(List<String> words, List<String> queryTerms) {
+        for (String term : queryTerms) {
+            boolean matched = false;
+            for (String word : words) {
+                if (word.startsWith(term)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(Suggestion.Type type, String id) {
+        return type.name().charAt(0) + ":" + id;
+    }
+}
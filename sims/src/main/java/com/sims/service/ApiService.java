@@ -0,0 +1,199 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.CursorPage;
+import com.sims.model.Enrollment;
+import com.sims.model.ScheduleFilter;
+import com.sims.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read side of the JSON API: keyset pages and single documents, cut down to
+ * the requested fields. Each result carries a strong entity tag built from
+ * the {@code version} of every document in it, so a client that sends the
+ * tag back is answered with 304 until one of those documents changes.
+ * Enrollments are never modified, only created and deleted, so their id
+ * alone identifies their content.
+ */
+@Service
+public class ApiService {
+    private static final Logger logger = LoggerFactory.getLogger(ApiService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    /**
+     * A response body with its entity tag. {@code lastModified} is only set
+     * for single documents: a page can lose a row without any remaining row
+     * changing, so only its tag is reliable.
+     */
+    public record Versioned<T>(T body, String eTag, Instant lastModified) {
+    }
+
+    public Versioned<CursorPage<Map<String, Object>>> studentsPage(String after, int size, String fields) {
+        return page(Student.class, ResourceColumns.STUDENTS, new Criteria(), "id", Student::getId,
+                Student::getVersion, after, size, fields);
+    }
+
+    public Versioned<Map<String, Object>> student(String id, String fields) {
+        return one(Student.class, ResourceColumns.STUDENTS, id, Student::getVersion, Student::getUpdatedAt, fields);
+    }
+
+    public Versioned<CursorPage<Map<String, Object>>> schedulesPage(String after, int size, String fields) {
+        return page(ClassSchedule.class, ResourceColumns.SCHEDULES, new Criteria(), "id", ClassSchedule::getId,
+                ClassSchedule::getVersion, after, size, fields);
+    }
+
+    /**
+     * Schedules matching {@code filter}, ordered by start time; the cursor is
+     * the last row's start minute and id. See
+     * {@link ClassScheduleService#findSchedulesInRange}.
+     */
+    public Versioned<CursorPage<Map<String, Object>>> schedulesInRange(ScheduleFilter filter, String after, int size,
+                                                                       String fields) {
+        List<String> selected = select(ResourceColumns.SCHEDULES, fields);
+        Set<String> projected = new LinkedHashSet<>(selected);
+        projected.add("version");
+        CursorPage<ClassSchedule> page = classScheduleService.findSchedulesInRange(filter, after, size, projected);
+        return tagged(ClassSchedule.class, ResourceColumns.SCHEDULES, selected, page.getContent(), ClassSchedule::getId,
+                ClassSchedule::getVersion, page.getNextCursor(), page.getSize(), page.getSort());
+    }
+
+    public Versioned<Map<String, Object>> schedule(String id, String fields) {
+        return one(ClassSchedule.class, ResourceColumns.SCHEDULES, id, ClassSchedule::getVersion,
+                ClassSchedule::getUpdatedAt, fields);
+    }
+
+    public Versioned<CursorPage<Map<String, Object>>> enrollmentsPage(String after, int size, String fields) {
+        return page(Enrollment.class, ResourceColumns.ENROLLMENTS, new Criteria(), "id", Enrollment::getId,
+                enrollment -> 0, after, size, fields);
+    }
+
+    /** A schedule's roster, keyset-paginated on studentId through the (scheduleId, studentId) index. */
+    public Versioned<CursorPage<Map<String, Object>>> rosterPage(String scheduleId, String after, int size, String fields) {
+        return page(Enrollment.class, ResourceColumns.ENROLLMENTS, Criteria.where("scheduleId").is(scheduleId),
+                "studentId", Enrollment::getStudentId, enrollment -> 0, after, size, fields);
+    }
+
+    /** A student's enrollments, keyset-paginated on scheduleId through the (studentId, scheduleId) index. */
+    public Versioned<CursorPage<Map<String, Object>>> timetablePage(String studentId, String after, int size, String fields) {
+        return page(Enrollment.class, ResourceColumns.ENROLLMENTS, Criteria.where("studentId").is(studentId),
+                "scheduleId", Enrollment::getScheduleId, enrollment -> 0, after, size, fields);
+    }
+
+    public Versioned<Map<String, Object>> enrollment(String id, String fields) {
+        return one(Enrollment.class, ResourceColumns.ENROLLMENTS, id, enrollment -> 0, Enrollment::getEnrolledAt, fields);
+    }
+
+    private <T> Versioned<CursorPage<Map<String, Object>>> page(Class<T> type, Map<String, Function<T, Object>> columns,
+                                                                Criteria filter, String keyField, Function<T, String> keyOf,
+                                                                ToLongFunction<T> versionOf, String after, int size,
+                                                                String fields) {
+        List<String> selected = select(columns, fields);
+        int pageSize = KeysetPager.clampSize(size);
+        Criteria criteria = after == null || after.isBlank()
+                ? filter
+                : new Criteria().andOperator(filter, Criteria.where(keyField).gt(after));
+        Query query = Query.query(criteria).with(Sort.by(keyField)).limit(pageSize + 1);
+        Set<String> projected = new LinkedHashSet<>(selected);
+        projected.add(keyField);
+        projected.add("version");
+        query.fields().include(projected.toArray(String[]::new));
+
+        List<T> rows = mongoTemplate.find(query, type);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        String next = hasNext ? keyOf.apply(rows.get(rows.size() - 1)) : null;
+        logger.info("API page of {} {} rows (after={})", rows.size(), type.getSimpleName(), after);
+        return tagged(type, columns, selected, rows, keyOf, versionOf, next, pageSize, keyField);
+    }
+
+    /** Cuts the rows down to the selected columns and tags the page with every row's version and the cursor. */
+    private static <T> Versioned<CursorPage<Map<String, Object>>> tagged(Class<T> type, Map<String, Function<T, Object>> columns,
+                                                                         List<String> selected, List<T> rows,
+                                                                         Function<T, String> keyOf, ToLongFunction<T> versionOf,
+                                                                         String next, int pageSize, String sort) {
+        List<Map<String, Object>> content = new ArrayList<>(rows.size());
+        StringBuilder tag = new StringBuilder(type.getSimpleName()).append('|').append(selected);
+        for (T row : rows) {
+            content.add(toMap(row, columns, selected));
+            tag.append('|').append(keyOf.apply(row)).append(':').append(versionOf.applyAsLong(row));
+        }
+        tag.append('|').append(next);
+        return new Versioned<>(new CursorPage<>(content, next, null, pageSize, sort), eTag(tag), null);
+    }
+
+    private <T> Versioned<Map<String, Object>> one(Class<T> type, Map<String, Function<T, Object>> columns, String id,
+                                                   ToLongFunction<T> versionOf, Function<T, Instant> lastModifiedOf,
+                                                   String fields) {
+        List<String> selected = select(columns, fields);
+        Query query = Query.query(Criteria.where("id").is(id));
+        Set<String> projected = new LinkedHashSet<>(selected);
+        projected.add("version");
+        projected.add(type == Enrollment.class ? "enrolledAt" : "updatedAt");
+        query.fields().include(projected.toArray(String[]::new));
+        T document = mongoTemplate.findOne(query, type);
+        if (document == null) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder(type.getSimpleName()).append('|').append(selected)
+                .append('|').append(id).append(':').append(versionOf.applyAsLong(document));
+        return new Versioned<>(toMap(document, columns, selected), eTag(tag), lastModifiedOf.apply(document));
+    }
+
+    /** Every column when {@code fields} is blank; otherwise the listed ones, in column order, plus the id. */
+    private static <T> List<String> select(Map<String, Function<T, Object>> columns, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return List.copyOf(columns.keySet());
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!columns.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ". Available: " + String.join(", ", columns.keySet()));
+            }
+            requested.add(name);
+        }
+        requested.add("id");
+        return columns.keySet().stream().filter(requested::contains).toList();
+    }
+
+    private static <T> Map<String, Object> toMap(T document, Map<String, Function<T, Object>> columns, List<String> selected) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : selected) {
+            row.put(name, columns.get(name).apply(document));
+        }
+        return row;
+    }
+
+    private static String eTag(CharSequence content) {
+        return '"' + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+}
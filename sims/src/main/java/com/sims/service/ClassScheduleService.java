@@ -5,35 +5,94 @@ import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.sims.cache.EntityCache;
+import com.sims.metrics.ReportMetrics;
 import com.sims.model.ClassSchedule;
-import com.sims.model.Student;
+import com.sims.model.CursorPage;
+import com.sims.model.ReportType;
+import com.sims.model.ScheduleFilter;
+import com.sims.model.ScheduleRow;
+import com.sims.model.Suggestion;
 import com.sims.repository.ClassScheduleRepository;
-import com.sims.repository.StudentRepository;
+import com.sims.search.SearchTokens;
+import com.sims.search.TypeaheadIndex;
+import com.sims.timetable.ScheduleTimes;
+import com.sims.timetable.TimeSlot;
+import com.sims.timetable.TimetableIndex;
+import io.micrometer.core.annotation.Timed;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
+@Timed("sims.service")
 public class ClassScheduleService {
     private static final Logger logger = LoggerFactory.getLogger(ClassScheduleService.class);
+    private static final int REPORT_BATCH_SIZE = 500;
+    private static final int REPORT_FLUSH_ROWS = 200;
 
     @Autowired
     private ClassScheduleRepository classScheduleRepository;
 
     @Autowired
-    private StudentRepository studentRepository;
+    private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private ScheduleSeatService scheduleSeatService;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    /**
+     * Saves a new schedule unless its room or instructor is already booked at
+     * an overlapping time. The id is assigned up front so the booking can be
+     * taken before the insert and released if the insert fails.
+     */
     @Transactional
     public void addClassSchedule(ClassSchedule classSchedule) {
         logger.info("Attempting to save class schedule: {}", classSchedule);
         try {
-            ClassSchedule savedSchedule = classScheduleRepository.save(classSchedule);
+            if (classSchedule.getId() == null || classSchedule.getId().isBlank()) {
+                classSchedule.setId(new ObjectId().toHexString());
+            }
+            timetableIndex.claim(classSchedule);
+            ClassSchedule savedSchedule;
+            try {
+                savedSchedule = classScheduleRepository.save(classSchedule);
+            } catch (RuntimeException e) {
+                timetableIndex.restore(classSchedule.getId(), null);
+                throw e;
+            }
+            typeaheadIndex.put(savedSchedule);
+            datasetVersions.bump(ReportType.SCHEDULES);
             logger.info("Class schedule saved successfully with ID: {}", savedSchedule.getId());
         } catch (Exception e) {
             logger.error("Failed to save class schedule: {}", e.getMessage(), e);
@@ -41,35 +100,90 @@ public class ClassScheduleService {
         }
     }
 
-    public List<ClassSchedule> getAllClassSchedules() {
-        List<ClassSchedule> schedules = classScheduleRepository.findAll();
-        logger.info("Retrieved {} class schedules", schedules.size());
-        return schedules;
+    public CursorPage<ScheduleRow> getClassSchedulesPage(String after, String before, int size, String sort) {
+        CursorPage<ScheduleRow> page = new KeysetPager<>(
+                classScheduleRepository::findRowsBy,
+                classScheduleRepository::findRowsByIdGreaterThan,
+                classScheduleRepository::findRowsByIdLessThan,
+                ScheduleRow::getId).page(after, before, size, sort);
+        logger.info("Retrieved page of {} class schedules (after={}, before={})", page.getContent().size(), after, before);
+        return page;
     }
 
     public ClassSchedule getClassScheduleById(String id) {
         logger.info("Retrieving class schedule with ID: {}", id);
-        Optional<ClassSchedule> schedule = classScheduleRepository.findById(id);
-        if (schedule.isPresent()) {
+        ClassSchedule schedule = entityCache.schedule(id, key -> classScheduleRepository.findById(key).orElse(null));
+        if (schedule != null) {
             logger.info("Class schedule found with ID: {}", id);
-            return schedule.get();
+            return schedule;
         } else {
             logger.warn("Class schedule not found with ID: {}", id);
             return null;
         }
     }
 
+    /**
+     * Saves the editable fields of a schedule. A capacity below the number of
+     * students already enrolled is rejected rather than leaving the class
+     * oversubscribed; a raised one is filled from the waitlist at once.
+     */
     @Transactional
     public void updateClassSchedule(ClassSchedule classSchedule) {
         logger.info("Attempting to update class schedule: {}", classSchedule);
         try {
-            if (classScheduleRepository.existsById(classSchedule.getId())) {
-                classScheduleRepository.save(classSchedule);
-                logger.info("Class schedule updated successfully with ID: {}", classSchedule.getId());
-            } else {
-                logger.error("Class schedule with ID {} does not exist", classSchedule.getId());
-                throw new IllegalArgumentException("Schedule not found");
+            // Rejects a new time, room or instructor that clashes, including with the enrolled students' other classes
+            TimetableIndex.Booking previous = timetableIndex.claim(classSchedule);
+            // $set only the editable fields so the seat counter and waitlist are kept
+            SearchTokens.apply(classSchedule);
+            ScheduleTimes.apply(classSchedule);
+            Update update = new Update()
+                    .set("className", classSchedule.getClassName())
+                    .set("instructor", classSchedule.getInstructor())
+                    .set("time", classSchedule.getTime())
+                    .set("room", classSchedule.getRoom())
+                    .set("duration", classSchedule.getDuration())
+                    .set("maxCapacity", classSchedule.getMaxCapacity())
+                    .set("startMinute", classSchedule.getStartMinute())
+                    .set("endMinute", classSchedule.getEndMinute())
+                    .set("durationMinutes", classSchedule.getDurationMinutes())
+                    .set("searchWords", classSchedule.getSearchWords())
+                    .set("searchTokens", classSchedule.getSearchTokens())
+                    .currentDate("updatedAt").inc("version", 1);
+            Query query = byId(classSchedule.getId());
+            if (classSchedule.getMaxCapacity() != null) {
+                // Checked in the same write so a seat taken meanwhile cannot slip in over the new capacity
+                query.addCriteria(new Criteria().orOperator(
+                        Criteria.where("enrolledCount").exists(false),
+                        Criteria.where("enrolledCount").lte(classSchedule.getMaxCapacity())));
+            }
+            query.fields().include("maxCapacity", "enrolledCount");
+            ClassSchedule before;
+            try {
+                before = mongoTemplate.findAndModify(query, update, ClassSchedule.class);
+            } catch (RuntimeException e) {
+                timetableIndex.restore(classSchedule.getId(), previous);
+                throw e;
             }
+            if (before == null) {
+                timetableIndex.restore(classSchedule.getId(), previous);
+                Query current = byId(classSchedule.getId());
+                current.fields().include("enrolledCount");
+                ClassSchedule existing = mongoTemplate.findOne(current, ClassSchedule.class);
+                if (existing == null) {
+                    logger.error("Class schedule with ID {} does not exist", classSchedule.getId());
+                    throw new IllegalArgumentException("Schedule not found");
+                }
+                throw new IllegalArgumentException("Max capacity cannot be below the " + existing.getEnrolledCount()
+                        + " students already enrolled");
+            }
+            entityCache.evictSchedule(classSchedule.getId());
+            if (classSchedule.getMaxCapacity() != null && (before.getMaxCapacity() == null
+                    || classSchedule.getMaxCapacity() > before.getMaxCapacity())) {
+                scheduleSeatService.promote(classSchedule.getId());
+            }
+            typeaheadIndex.put(classSchedule);
+            datasetVersions.bump(ReportType.SCHEDULES);
+            logger.info("Class schedule updated successfully with ID: {}", classSchedule.getId());
         } catch (Exception e) {
             logger.error("Failed to update class schedule: {}", e.getMessage(), e);
             throw e;
@@ -80,65 +194,229 @@ public class ClassScheduleService {
     public void deleteClassSchedule(String id) {
         logger.info("Attempting to delete class schedule with ID: {}", id);
         try {
-            Optional<ClassSchedule> scheduleOpt = classScheduleRepository.findById(id);
-            if (scheduleOpt.isPresent()) {
-                ClassSchedule schedule = scheduleOpt.get();
-                for (String studentId : schedule.getStudentIds()) {
-                    Optional<Student> studentOpt = studentRepository.findById(studentId);
-                    studentOpt.ifPresent(student -> {
-                        student.getScheduleIds().remove(id);
-                        studentRepository.save(student);
-                    });
-                }
-                classScheduleRepository.deleteById(id);
-                logger.info("Class schedule deleted successfully with ID: {}", id);
-            } else {
+            Query query = byId(id);
+            query.fields().include("id");
+            ClassSchedule removed = mongoTemplate.findAndRemove(query, ClassSchedule.class);
+            if (removed == null) {
                 logger.error("Class schedule with ID {} does not exist", id);
                 throw new IllegalArgumentException("Schedule not found");
             }
+            typeaheadIndex.remove(Suggestion.Type.SCHEDULE, id);
+            timetableIndex.remove(List.of(id));
+            entityCache.evictSchedule(id);
+            long unlinked = scheduleSeatService.removeSchedules(List.of(id));
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Class schedule deleted successfully with ID: {} (removed from {} students)", id, unlinked);
         } catch (Exception e) {
             logger.error("Failed to delete class schedule: {}", e.getMessage(), e);
             throw e;
         }
     }
 
-    public List<ClassSchedule> searchSchedules(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getAllClassSchedules();
+    /**
+     * Deletes many schedules at once with one read, one delete and one delete
+     * of their enrollments. Returns how many schedules were deleted.
+     */
+    public long deleteClassSchedules(Collection<String> ids) {
+        logger.info("Attempting to delete {} class schedules", ids.size());
+        try {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Query query = Query.query(Criteria.where("id").in(ids));
+            query.fields().include("id");
+            List<ClassSchedule> existing = mongoTemplate.find(query, ClassSchedule.class);
+            if (existing.isEmpty()) {
+                logger.warn("None of the {} class schedules exist", ids.size());
+                return 0;
+            }
+            List<String> deletedIds = new ArrayList<>();
+            for (ClassSchedule schedule : existing) {
+                deletedIds.add(schedule.getId());
+            }
+            long deleted = mongoTemplate.remove(Query.query(Criteria.where("id").in(deletedIds)), ClassSchedule.class)
+                    .getDeletedCount();
+            for (String id : deletedIds) {
+                typeaheadIndex.remove(Suggestion.Type.SCHEDULE, id);
+            }
+            timetableIndex.remove(deletedIds);
+            entityCache.evictSchedules(deletedIds);
+            long unlinked = scheduleSeatService.removeSchedules(deletedIds);
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Deleted {} class schedules ({} enrollments removed)", deleted, unlinked);
+            return deleted;
+        } catch (Exception e) {
+            logger.error("Failed to delete class schedules: {}", e.getMessage(), e);
+            throw e;
         }
-        return classScheduleRepository.findByClassNameOrInstructorContainingIgnoreCase(searchTerm.trim());
+    }
+
+    /** Rooms in use by any schedule that are free for the whole of {@code time} ({@code HH:MM-HH:MM}). */
+    public List<String> findFreeRooms(String time) {
+        TimeSlot slot = TimeSlot.parse(time);
+        List<String> rooms = timetableIndex.freeRooms(slot);
+        logger.info("Found {} free rooms for {}", rooms.size(), slot);
+        return rooms;
+    }
+
+    /**
+     * Schedules matching {@code filter}, ordered by start time. The start-time
+     * range, room and instructor are answered by the compound indexes on
+     * {@code startMinute}; the remaining criteria only filter what those
+     * return. The cursor is the last row's start minute and id. Only
+     * {@code fields} are read, plus the start minute the cursor needs.
+     */
+    public CursorPage<ClassSchedule> findSchedulesInRange(ScheduleFilter filter, String after, int size,
+                                                          Collection<String> fields) {
+        int pageSize = KeysetPager.clampSize(size);
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter.getRoom() != null && !filter.getRoom().isBlank()) {
+            criteria.add(Criteria.where("room").is(filter.getRoom().trim()));
+        }
+        if (filter.getInstructor() != null && !filter.getInstructor().isBlank()) {
+            criteria.add(Criteria.where("instructor").is(filter.getInstructor().trim()));
+        }
+        Criteria start = Criteria.where("startMinute").ne(null);
+        if (filter.getStartFrom() != null && !filter.getStartFrom().isBlank()) {
+            start = start.gte(ScheduleTimes.minuteOf(filter.getStartFrom()));
+        }
+        if (filter.getStartTo() != null && !filter.getStartTo().isBlank()) {
+            start = start.lte(ScheduleTimes.minuteOf(filter.getStartTo()));
+        }
+        criteria.add(start);
+        if (filter.getEndBy() != null && !filter.getEndBy().isBlank()) {
+            criteria.add(Criteria.where("endMinute").lte(ScheduleTimes.minuteOf(filter.getEndBy())));
+        }
+        if (filter.getMinCapacity() != null) {
+            criteria.add(Criteria.where("maxCapacity").gte(filter.getMinCapacity()));
+        }
+        if (filter.getMinDuration() != null || filter.getMaxDuration() != null) {
+            Criteria duration = Criteria.where("durationMinutes");
+            if (filter.getMinDuration() != null) {
+                duration = duration.gte(filter.getMinDuration());
+            }
+            if (filter.getMaxDuration() != null) {
+                duration = duration.lte(filter.getMaxDuration());
+            }
+            criteria.add(duration);
+        }
+        if (filter.isFreeSeats()) {
+            criteria.add(Criteria.expr(ScheduleSeatService.HAS_FREE_SEAT));
+        }
+        if (after != null && !after.isBlank()) {
+            int separator = after.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int minute;
+            try {
+                minute = Integer.parseInt(after.substring(0, separator));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String id = after.substring(separator + 1);
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("startMinute").gt(minute),
+                    new Criteria().andOperator(Criteria.where("startMinute").is(minute), Criteria.where("id").gt(id))));
+        }
+
+        Query query = Query.query(new Criteria().andOperator(criteria))
+                .with(Sort.by("startMinute", "id"))
+                .limit(pageSize + 1);
+        query.fields().include(fields.toArray(String[]::new)).include("startMinute");
+        List<ClassSchedule> rows = mongoTemplate.find(query, ClassSchedule.class);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        ClassSchedule last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        logger.info("Range query {} returned {} rows (after={})", filter, rows.size(), after);
+        return new CursorPage<>(new ArrayList<>(rows),
+                hasNext ? last.getStartMinute() + ":" + last.getId() : null, null, pageSize, "startMinute");
+    }
+
+    /**
+     * Relevance-ranked prefix search served by the {@code searchTokens} index.
+     * The cursors on the returned page are page numbers rather than ids.
+     */
+    public CursorPage<ScheduleRow> searchSchedules(String searchTerm, int page, int size) {
+        List<String> terms = SearchTokens.queryTerms(searchTerm);
+        if (terms.isEmpty()) {
+            return getClassSchedulesPage(null, null, size, "asc");
+        }
+        int pageSize = KeysetPager.clampSize(size);
+        int pageNumber = Math.max(page, 0);
+        List<ScheduleRow> rows = classScheduleRepository.searchByTokens(terms, (long) pageNumber * pageSize, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        logger.info("Search for {} returned {} rows on page {}", terms, rows.size(), pageNumber);
+        return new CursorPage<>(new ArrayList<>(rows),
+                hasNext ? String.valueOf(pageNumber + 1) : null,
+                pageNumber > 0 ? String.valueOf(pageNumber - 1) : null,
+                pageSize, "relevance");
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id));
     }
 
     public byte[] generateScheduleReport() {
-        List<ClassSchedule> schedules = getAllClassSchedules();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(baos);
-             PdfDocument pdf = new PdfDocument(writer);
-             Document document = new Document(pdf)) {
+        writeScheduleReport(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Streams the schedule report to {@code out}. Schedules are read through a
+     * Mongo cursor and rows are flushed from the iText large table in chunks,
+     * so neither the result set nor the layout tree is held in memory.
+     */
+    public void writeScheduleReport(OutputStream out) {
+        reportMetrics.record(ReportType.SCHEDULES, out, this::renderScheduleReport);
+    }
+
+    private void renderScheduleReport(OutputStream out) {
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(REPORT_BATCH_SIZE);
+        query.fields().include("className", "instructor", "time", "room", "enrolledCount");
+        PdfWriter writer = new PdfWriter(out);
+        // The caller owns the output stream (e.g. the servlet response)
+        writer.setCloseStream(false);
+        int rows = 0;
+        try (PdfDocument pdf = new PdfDocument(writer);
+             Document document = new Document(pdf);
+             Stream<ClassSchedule> schedules = mongoTemplate.stream(query, ClassSchedule.class)) {
 
             document.add(new Paragraph("Class Schedule Report").setBold());
-            Table table = new Table(6);
+            Table table = new Table(6, true);
             table.addHeaderCell("ID");
             table.addHeaderCell("Class Name");
             table.addHeaderCell("Instructor");
             table.addHeaderCell("Time");
             table.addHeaderCell("Room");
             table.addHeaderCell("Enrolled Students");
+            document.add(table);
 
-            for (ClassSchedule schedule : schedules) {
+            Iterator<ClassSchedule> iterator = schedules.iterator();
+            while (iterator.hasNext()) {
+                ClassSchedule schedule = iterator.next();
                 table.addCell(schedule.getId());
                 table.addCell(schedule.getClassName());
                 table.addCell(schedule.getInstructor());
                 table.addCell(schedule.getTime());
                 table.addCell(schedule.getRoom());
-                table.addCell(String.valueOf(schedule.getStudentIds().size()));
+                table.addCell(String.valueOf(schedule.getEnrolledCount()));
+                if (++rows % REPORT_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
             }
 
-            document.add(table);
+            table.complete();
+            logger.info("Generated schedule report with {} rows", rows);
         } catch (Exception e) {
             logger.error("Failed to generate schedule report: {}", e.getMessage(), e);
             throw new RuntimeException("Report generation failed");
         }
-        return baos.toByteArray();
     }
 }
\ No newline at end of file
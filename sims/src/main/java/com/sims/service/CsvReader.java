@@ -0,0 +1,78 @@
+package com.sims.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader that yields one record at a time. Quoted fields may
+ * contain commas, doubled quotes and line breaks; blank lines are skipped.
+ */
+final class CsvReader {
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLine;
+
+    CsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /** Returns the next record, or null at the end of the input. */
+    List<String> next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+        } while (line.isBlank());
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Unterminated quoted field starting on line " + recordLine);
+            }
+            lineNumber++;
+            field.append('\n');
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /** Line on which the last record returned by {@link #next()} started. */
+    long recordLine() {
+        return recordLine;
+    }
+}
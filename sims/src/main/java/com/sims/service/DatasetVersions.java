@@ -0,0 +1,66 @@
+package com.sims.service;
+
+import com.sims.model.ReportType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks a version per dataset that changes on every write: the services,
+ * imports and the startup migrations all bump it after writing. It keys the
+ * report cache and the entity tags of the HTML list pages, so checking
+ * either costs no database read. The version is prefixed with the start time
+ * of this instance so that report files cached and tags handed out by a
+ * previous run are never mistaken for current ones. Writes made by another
+ * instance are not seen, like those to {@link com.sims.timetable.TimetableIndex}.
+ */
+@Component
+public class DatasetVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<ReportType, AtomicLong> versions = new EnumMap<>(ReportType.class);
+
+    public DatasetVersions() {
+        for (ReportType type : ReportType.values()) {
+            versions.put(type, new AtomicLong());
+        }
+    }
+
+    public void bump(ReportType... types) {
+        for (ReportType type : types) {
+            versions.get(type).incrementAndGet();
+        }
+    }
+
+    public String current(ReportType type) {
+        return epoch + "-" + versions.get(type).get();
+    }
+
+    /**
+     * Orders two versions returned by {@link #current}, those of a later run
+     * after every version of an earlier one. Either is null when it is not a
+     * version at all.
+     */
+    public static int compare(String a, String b) {
+        long[] left = parse(a);
+        long[] right = parse(b);
+        if (left == null || right == null) {
+            return left == right ? 0 : left == null ? -1 : 1;
+        }
+        int byEpoch = Long.compare(left[0], right[0]);
+        return byEpoch != 0 ? byEpoch : Long.compare(left[1], right[1]);
+    }
+
+    private static long[] parse(String version) {
+        int dash = version == null ? -1 : version.indexOf('-');
+        if (dash < 1) {
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(version.substring(0, dash), 36), Long.parseLong(version.substring(dash + 1))};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.ReportType;
+import com.sims.model.Student;
+import com.sims.repository.IndexProvisioner;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Moves rosters embedded in schedules
+ * ({@code studentIds}) into the enrollment collection, recounting
+ * {@code enrolledCount} from what was moved. The mirror copy on students
+ * ({@code scheduleIds}) is then dropped. Every step only touches documents
+ * that still carry the old fields, so it is safe to run on each startup and
+ * resumes where an interrupted run stopped.
+ * <p>
+ * Runs off the startup thread once the application is ready, like
+ * {@link ScheduleFieldMigration}, so an unreachable database does not stop
+ * the application from starting. A failed run is retried with a growing
+ * delay. Until it has run, schedules stored with an embedded roster show an
+ * empty roster and count their seats as free.
+ */
+@Component
+public class EnrollmentMigration {
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentMigration.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long FIRST_RETRY_SECONDS = 5;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private IndexProvisioner indexProvisioner;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateAfterStartup() {
+        CompletableFuture.runAsync(() -> attempt(1));
+    }
+
+    private void attempt(int attempt) {
+        try {
+            migrate();
+        } catch (Exception e) {
+            if (attempt == MAX_ATTEMPTS) {
+                logger.error("Failed to migrate enrollments after {} attempts, giving up until the next start: {}",
+                        attempt, e.getMessage());
+                return;
+            }
+            long delay = FIRST_RETRY_SECONDS << (attempt - 1);
+            logger.warn("Failed to migrate enrollments (attempt {} of {}), retrying in {} s: {}",
+                    attempt, MAX_ATTEMPTS, delay, e.getMessage());
+            CompletableFuture.runAsync(() -> attempt(attempt + 1),
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.SECONDS));
+        }
+    }
+
+    public void migrate() {
+        // Moving relies on the unique (studentId, scheduleId) index to skip seats already moved
+        indexProvisioner.ensure(Enrollment.class);
+        long schedules = moveRosters();
+        long students = mongoTemplate.updateMulti(Query.query(Criteria.where("scheduleIds").exists(true)),
+                new Update().unset("scheduleIds"), Student.class).getModifiedCount();
+        // Schedules saved before the seat counter existed and without a roster to move
+        long counters = mongoTemplate.updateMulti(Query.query(Criteria.where("enrolledCount").exists(false)),
+                new Update().set("enrolledCount", 0), ClassSchedule.class).getModifiedCount();
+        long waitlists = mongoTemplate.updateMulti(Query.query(Criteria.where("waitlist").exists(false)),
+                new Update().set("waitlist", List.of()), ClassSchedule.class).getModifiedCount();
+        if (schedules + students + counters + waitlists > 0) {
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Migrated enrollments: {} schedule rosters moved, {} students unlinked, {} counters and {} waitlists initialized",
+                    schedules, students, counters, waitlists);
+        }
+    }
+
+    private long moveRosters() {
+        String collection = mongoTemplate.getCollectionName(ClassSchedule.class);
+        Query legacy = Query.query(Criteria.where("studentIds").exists(true));
+        legacy.fields().include("studentIds");
+        long moved = 0;
+        try (Stream<Document> schedules = mongoTemplate.stream(legacy, Document.class, collection)) {
+            for (Document schedule : (Iterable<Document>) schedules::iterator) {
+                String scheduleId = String.valueOf(schedule.get("_id"));
+                Set<String> roster = new LinkedHashSet<>(schedule.getList("studentIds", String.class, List.of()));
+                insertIgnoringDuplicates(scheduleId, roster);
+                // Count what is stored rather than what was moved, in case an earlier run got partway
+                long seats = mongoTemplate.count(Query.query(Criteria.where("scheduleId").is(scheduleId)), Enrollment.class);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(schedule.get("_id"))),
+                        new Update().set("enrolledCount", seats).unset("studentIds").currentDate("updatedAt").inc("version", 1),
+                        collection);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private void insertIgnoringDuplicates(String scheduleId, Set<String> roster) {
+        List<Enrollment> batch = new ArrayList<>(BATCH_SIZE);
+        Instant now = Instant.now();
+        for (String studentId : roster) {
+            batch.add(Enrollment.builder().scheduleId(scheduleId).studentId(studentId).enrolledAt(now).build());
+            if (batch.size() == BATCH_SIZE) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Enrollment> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Enrollment.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            // Duplicates were moved by an earlier, interrupted run; anything else is a real failure
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+}
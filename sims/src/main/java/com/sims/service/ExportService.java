@@ -0,0 +1,111 @@
+package com.sims.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sims.model.ClassSchedule;
+import com.sims.model.DataFormat;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes students or class schedules as CSV or NDJSON straight from a MongoDB
+ * cursor, one row at a time, so heap use does not grow with the collection.
+ * Column names match the import format, so an export can be imported again.
+ */
+@Service
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Writes every student, or only those modified at or after {@code since} when it is given. */
+    public long writeStudents(OutputStream out, DataFormat format, Instant since) throws IOException {
+        return write(out, format, since, "updatedAt", Student.class, ResourceColumns.STUDENTS);
+    }
+
+    public long writeSchedules(OutputStream out, DataFormat format, Instant since) throws IOException {
+        return write(out, format, since, "updatedAt", ClassSchedule.class, ResourceColumns.SCHEDULES);
+    }
+
+    /** Enrollments are never modified, only created and deleted, so {@code since} applies to when they were made. */
+    public long writeEnrollments(OutputStream out, DataFormat format, Instant since) throws IOException {
+        return write(out, format, since, "enrolledAt", Enrollment.class, ResourceColumns.ENROLLMENTS);
+    }
+
+    private <T> long write(OutputStream out, DataFormat format, Instant since, String sinceField, Class<T> type,
+                           Map<String, Function<T, Object>> columns) throws IOException {
+        logger.info("Exporting {} as {} (since={})", type.getSimpleName(), format, since);
+        Query query = since == null ? new Query() : Query.query(Criteria.where(sinceField).gte(since));
+        query.fields().include(columns.keySet().toArray(String[]::new));
+        query.cursorBatchSize(CURSOR_BATCH_SIZE);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == DataFormat.CSV) {
+            writer.write(String.join(",", columns.keySet()));
+            writer.write('\n');
+        }
+        long rows = 0;
+        try (Stream<T> stream = mongoTemplate.stream(query, type)) {
+            for (T entity : (Iterable<T>) stream::iterator) {
+                if (format == DataFormat.CSV) {
+                    writeCsvRow(writer, entity, columns);
+                } else {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    columns.forEach((name, value) -> row.put(name, value.apply(entity)));
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+        // Flush only; the caller owns the stream and may still need to finish a gzip trailer
+        writer.flush();
+        logger.info("Exported {} {} rows", rows, type.getSimpleName());
+        return rows;
+    }
+
+    private static <T> void writeCsvRow(Writer writer, T entity, Map<String, Function<T, Object>> columns) throws IOException {
+        boolean first = true;
+        for (Function<T, Object> column : columns.values()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            Object value = column.apply(entity);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,67 @@
+package com.sims.service;
+
+import com.sims.model.DataFormat;
+import com.sims.model.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Imports files named on the command line at startup, e.g.
+ * {@code --import-students=students.csv --import-schedules=schedules.ndjson}.
+ * Add {@code --spring.main.web-application-type=none} to run it as a one-off
+ * job that exits when the import is done.
+ */
+@Component
+public class ImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ImportRunner.class);
+    private static final int ERRORS_LOGGED = 20;
+
+    @Autowired
+    private ImportService importService;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        for (String file : option(args, "import-schedules")) {
+            log(importFile(file, true));
+        }
+        for (String file : option(args, "import-students")) {
+            log(importFile(file, false));
+        }
+    }
+
+    private ImportReport importFile(String file, boolean schedules) throws IOException {
+        Path path = Path.of(file);
+        DataFormat format = DataFormat.detect(path.getFileName().toString());
+        if (format == null) {
+            throw new IllegalArgumentException("Cannot tell the format of " + file + "; use .csv or .ndjson");
+        }
+        logger.info("Importing {} from {}", schedules ? "schedules" : "students", path);
+        try (InputStream input = Files.newInputStream(path)) {
+            return schedules
+                    ? importService.importSchedules(input, format)
+                    : importService.importStudents(input, format);
+        }
+    }
+
+    private static List<String> option(ApplicationArguments args, String name) {
+        return args.containsOption(name) ? args.getOptionValues(name) : List.of();
+    }
+
+    private static void log(ImportReport report) {
+        logger.info("{} import: {} rows, {} inserted, {} duplicates, {} invalid, {} failed, {} rows/s",
+                report.getType(), report.getRowsRead(), report.getInserted(), report.getDuplicates(),
+                report.getInvalid(), report.getFailed(), report.getRowsPerSecond());
+        report.getErrors().stream().limit(ERRORS_LOGGED)
+                .forEach(error -> logger.warn("  line {}: {}", error.getLine(), error.getMessage()));
+    }
+}
@@ -0,0 +1,377 @@
+package com.sims.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.sims.model.ClassSchedule;
+import com.sims.model.DataFormat;
+import com.sims.model.ImportReport;
+import com.sims.model.ReportType;
+import com.sims.model.Student;
+import com.sims.search.TypeaheadIndex;
+import com.sims.timetable.TimetableIndex;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams students or class schedules from CSV or NDJSON into MongoDB. Rows are
+ * parsed one at a time, checked with the entity's Bean Validation constraints,
+ * and written with unordered bulk inserts of {@code sims.import.batch-size}
+ * documents. Rejected rows are collected into the returned report rather than
+ * failing the import.
+ */
+@Service
+public class ImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+    private static final int DUPLICATE_KEY = 11000;
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {};
+    // Ids, links and derived fields are assigned here, never taken from the file; this also lets exports be re-imported
+    private static final Set<String> IGNORED_COLUMNS = Set.of("id", "scheduleIds", "studentIds", "waitlist",
+            "enrolledCount", "updatedAt", "version", "searchWords", "searchTokens", "startMinute", "endMinute", "durationMinutes");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Value("${sims.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${sims.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ImportReport importStudents(InputStream input, DataFormat format) throws IOException {
+        return run("students", input, format, Student.class, student -> {
+            student.setId(new ObjectId().toHexString());
+            if (student.getEnrollmentDate() == null) {
+                student.setEnrollmentDate(LocalDate.now());
+            }
+        }, Student::getEmail, "email", typeaheadIndex::put, student -> { }, ReportType.STUDENTS);
+    }
+
+    /** Schedules whose room or instructor is already booked at that time, in the database or earlier in the file, are rejected. */
+    public ImportReport importSchedules(InputStream input, DataFormat format) throws IOException {
+        return run("schedules", input, format, ClassSchedule.class, schedule -> {
+            schedule.setId(new ObjectId().toHexString());
+            timetableIndex.claim(schedule);
+        }, null, null, typeaheadIndex::put, schedule -> timetableIndex.restore(schedule.getId(), null), ReportType.SCHEDULES);
+    }
+
+    /**
+     * Runs one import. {@code uniqueKey} names the property backed by a unique
+     * index; rows repeating a key already seen in the input or already stored
+     * are reported as duplicates instead of being sent to the server.
+     * {@code prepare} may reject a row by throwing IllegalArgumentException;
+     * {@code onFailed} undoes it for rows the server then refuses, and for
+     * rows still waiting in the batch when the import is aborted.
+     */
+    private <T> ImportReport run(String type, InputStream input, DataFormat format, Class<T> entityClass,
+                                 Consumer<T> prepare, Function<T, String> uniqueKey, String uniqueField,
+                                 Consumer<T> onInserted, Consumer<T> onFailed, ReportType reportType) throws IOException {
+        logger.info("Starting {} import ({})", type, format);
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        report.setType(type);
+        report.setFormat(format);
+        Set<String> seenKeys = new HashSet<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource rows = format == DataFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+        try {
+            Map<String, Object> row;
+            while ((row = nextRow(rows, report)) != null) {
+                long line = rows.line();
+                row.keySet().removeAll(IGNORED_COLUMNS);
+                T entity;
+                try {
+                    entity = objectMapper.convertValue(row, entityClass);
+                } catch (IllegalArgumentException e) {
+                    reject(report, line, "Unreadable row: " + rootMessage(e));
+                    report.setInvalid(report.getInvalid() + 1);
+                    continue;
+                }
+                Set<ConstraintViolation<T>> violations = validator.validate(entity);
+                if (!violations.isEmpty()) {
+                    Set<String> messages = new TreeSet<>();
+                    for (ConstraintViolation<T> violation : violations) {
+                        messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                    }
+                    reject(report, line, String.join("; ", messages));
+                    report.setInvalid(report.getInvalid() + 1);
+                    continue;
+                }
+                if (uniqueKey != null && !seenKeys.add(uniqueKey.apply(entity))) {
+                    reject(report, line, "Duplicate " + uniqueField + " earlier in the file: " + uniqueKey.apply(entity));
+                    report.setDuplicates(report.getDuplicates() + 1);
+                    continue;
+                }
+                try {
+                    prepare.accept(entity);
+                } catch (IllegalArgumentException e) {
+                    reject(report, line, e.getMessage());
+                    report.setInvalid(report.getInvalid() + 1);
+                    continue;
+                }
+                batch.add(entity);
+                batchLines.add(line);
+                if (batch.size() >= batchSize) {
+                    flush(report, entityClass, batch, batchLines, uniqueKey, uniqueField, onInserted, onFailed);
+                }
+            }
+            flush(report, entityClass, batch, batchLines, uniqueKey, uniqueField, onInserted, onFailed);
+        } finally {
+            // Rows prepared but never written, when the file could not be read to the end or a flush failed
+            batch.forEach(onFailed);
+        }
+
+        if (report.getInserted() > 0) {
+            datasetVersions.bump(reportType);
+        }
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(report.getRowsRead() * 1000 / Math.max(1, report.getElapsedMillis()));
+        logger.info("Imported {}: {} rows read, {} inserted, {} duplicates, {} invalid, {} failed in {} ms",
+                type, report.getRowsRead(), report.getInserted(), report.getDuplicates(),
+                report.getInvalid(), report.getFailed(), report.getElapsedMillis());
+        return report;
+    }
+
+    private <T> void flush(ImportReport report, Class<T> entityClass, List<T> batch, List<Long> batchLines,
+                           Function<T, String> uniqueKey, String uniqueField, Consumer<T> onInserted,
+                           Consumer<T> onFailed) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> toInsert = batch;
+        List<Long> toInsertLines = batchLines;
+        if (uniqueKey != null) {
+            Set<String> stored = existingKeys(entityClass, uniqueField, batch, uniqueKey);
+            if (!stored.isEmpty()) {
+                toInsert = new ArrayList<>(batch.size());
+                toInsertLines = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    String key = uniqueKey.apply(batch.get(i));
+                    if (stored.contains(key)) {
+                        reject(report, batchLines.get(i), "Duplicate " + uniqueField + " already stored: " + key);
+                        report.setDuplicates(report.getDuplicates() + 1);
+                        onFailed.accept(batch.get(i));
+                    } else {
+                        toInsert.add(batch.get(i));
+                        toInsertLines.add(batchLines.get(i));
+                    }
+                }
+            }
+        }
+
+        Set<Integer> rejected = new HashSet<>();
+        if (!toInsert.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass).insert(toInsert).execute();
+            } catch (BulkOperationException e) {
+                // Unordered: everything not listed here was written
+                for (BulkWriteError error : e.getErrors()) {
+                    rejected.add(error.getIndex());
+                    long line = toInsertLines.get(error.getIndex());
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        reject(report, line, "Duplicate " + uniqueField + " already stored");
+                        report.setDuplicates(report.getDuplicates() + 1);
+                    } else {
+                        reject(report, line, error.getMessage());
+                        report.setFailed(report.getFailed() + 1);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < toInsert.size(); i++) {
+            if (rejected.contains(i)) {
+                onFailed.accept(toInsert.get(i));
+            } else {
+                onInserted.accept(toInsert.get(i));
+            }
+        }
+        report.setInserted(report.getInserted() + toInsert.size() - rejected.size());
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private <T> Set<String> existingKeys(Class<T> entityClass, String field, List<T> batch, Function<T, String> key) {
+        List<String> keys = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            keys.add(key.apply(entity));
+        }
+        Query query = Query.query(Criteria.where(field).in(keys));
+        query.fields().include(field).exclude("_id");
+        Set<String> stored = new HashSet<>();
+        for (Document document : mongoTemplate.find(query, Document.class,
+                mongoTemplate.getCollectionName(entityClass))) {
+            stored.add(document.getString(field));
+        }
+        return stored;
+    }
+
+    /** Reads the next row, recording rows that cannot be parsed and moving past them. */
+    private Map<String, Object> nextRow(RowSource rows, ImportReport report) throws IOException {
+        while (true) {
+            try {
+                Map<String, Object> row = rows.next();
+                if (row != null) {
+                    report.setRowsRead(report.getRowsRead() + 1);
+                }
+                return row;
+            } catch (RowException e) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                report.setInvalid(report.getInvalid() + 1);
+                reject(report, rows.line(), e.getMessage());
+            }
+        }
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return emptyRows();
+        }
+        return new RowSource() {
+            @Override
+            public Map<String, Object> next() throws IOException {
+                List<String> fields = csv.next();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() != header.size()) {
+                    throw new RowException("Expected " + header.size() + " columns but found " + fields.size());
+                }
+                Map<String, Object> row = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    // Blank cells are missing values, so validation reports them as required fields
+                    if (!fields.get(i).isEmpty()) {
+                        row.put(header.get(i), fields.get(i));
+                    }
+                }
+                return row;
+            }
+
+            @Override
+            public long line() {
+                return csv.recordLine();
+            }
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        return new RowSource() {
+            private long line;
+
+            @Override
+            public Map<String, Object> next() throws IOException {
+                String text;
+                do {
+                    text = reader.readLine();
+                    if (text == null) {
+                        return null;
+                    }
+                    line++;
+                } while (text.isBlank());
+                try {
+                    return objectMapper.readValue(text, ROW);
+                } catch (IOException e) {
+                    throw new RowException("Malformed JSON: " + rootMessage(e));
+                }
+            }
+
+            @Override
+            public long line() {
+                return line;
+            }
+        };
+    }
+
+    private static RowSource emptyRows() {
+        return new RowSource() {
+            @Override
+            public Map<String, Object> next() {
+                return null;
+            }
+
+            @Override
+            public long line() {
+                return 0;
+            }
+        };
+    }
+
+    private static String rootMessage(Exception e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage();
+        int newline = message == null ? -1 : message.indexOf('\n');
+        return newline < 0 ? String.valueOf(message) : message.substring(0, newline);
+    }
+
+    private interface RowSource {
+        /** Returns the next row as property name to value, or null at the end of the input. */
+        Map<String, Object> next() throws IOException;
+
+        /** Line the row returned by the last {@link #next()} call started on. */
+        long line();
+    }
+
+    private static class RowException extends IOException {
+        RowException(String message) {
+            super(message);
+        }
+    }
+}
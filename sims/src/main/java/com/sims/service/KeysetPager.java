@@ -0,0 +1,99 @@
+package com.sims.service;
+
+import com.sims.model.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) pagination over the {@code _id} field. Each page is read with a
+ * range predicate on {@code _id} and a limit of {@code size + 1}, so the cost of
+ * a page does not depend on how far into the collection it is. The extra row
+ * tells whether there is more in the direction of travel; a page reached from
+ * a cursor also reads one row the other way, so each cursor is only set when
+ * a row lies beyond it.
+ */
+final class KeysetPager<T> {
+    static final int DEFAULT_PAGE_SIZE = 25;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final Function<Pageable, List<T>> firstPage;
+    private final BiFunction<String, Pageable, List<T>> idGreaterThan;
+    private final BiFunction<String, Pageable, List<T>> idLessThan;
+    private final Function<T, String> idOf;
+
+    KeysetPager(Function<Pageable, List<T>> firstPage,
+                BiFunction<String, Pageable, List<T>> idGreaterThan,
+                BiFunction<String, Pageable, List<T>> idLessThan,
+                Function<T, String> idOf) {
+        this.firstPage = firstPage;
+        this.idGreaterThan = idGreaterThan;
+        this.idLessThan = idLessThan;
+        this.idOf = idOf;
+    }
+
+    CursorPage<T> page(String after, String before, int size, String sort) {
+        int pageSize = clampSize(size);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sort) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String sortName = direction.name().toLowerCase();
+
+        if (hasText(before)) {
+            // Walk backwards from the cursor in the opposite order, then flip the rows back
+            Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(reverse(direction), "id"));
+            List<T> rows = new ArrayList<>(direction.isAscending()
+                    ? idLessThan.apply(before, pageable)
+                    : idGreaterThan.apply(before, pageable));
+            boolean hasPrevious = rows.size() > pageSize;
+            if (hasPrevious) {
+                rows = rows.subList(0, pageSize);
+            }
+            Collections.reverse(rows);
+            String prevCursor = hasPrevious ? idOf.apply(rows.get(0)) : null;
+            String last = rows.isEmpty() ? null : idOf.apply(rows.get(rows.size() - 1));
+            String nextCursor = last != null && hasRowBeyond(last, direction) ? last : null;
+            return new CursorPage<>(rows, nextCursor, prevCursor, pageSize, sortName);
+        }
+
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(direction, "id"));
+        List<T> rows;
+        if (hasText(after)) {
+            rows = direction.isAscending()
+                    ? idGreaterThan.apply(after, pageable)
+                    : idLessThan.apply(after, pageable);
+        } else {
+            rows = firstPage.apply(pageable);
+        }
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? idOf.apply(rows.get(rows.size() - 1)) : null;
+        String first = hasText(after) && !rows.isEmpty() ? idOf.apply(rows.get(0)) : null;
+        String prevCursor = first != null && hasRowBeyond(first, reverse(direction)) ? first : null;
+        return new CursorPage<>(new ArrayList<>(rows), nextCursor, prevCursor, pageSize, sortName);
+    }
+
+    /** Whether any row follows {@code id} when walking in {@code direction}; reads at most one row. */
+    private boolean hasRowBeyond(String id, Sort.Direction direction) {
+        Pageable one = PageRequest.of(0, 1, Sort.by(direction, "id"));
+        return !(direction.isAscending() ? idGreaterThan.apply(id, one) : idLessThan.apply(id, one)).isEmpty();
+    }
+
+    private static Sort.Direction reverse(Sort.Direction direction) {
+        return direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    static int clampSize(int size) {
+        return size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
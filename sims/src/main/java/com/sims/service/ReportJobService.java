@@ -0,0 +1,208 @@
+package com.sims.service;
+
+import com.sims.model.ReportJob;
+import com.sims.model.ReportType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs report generation off the request thread on a bounded executor and
+ * caches finished PDFs on disk, keyed by {@link DatasetVersions}. A report is
+ * only rebuilt after a write has changed the dataset it is built from.
+ */
+@Service
+public class ReportJobService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>();
+    private final Path cacheDir;
+    private final ThreadPoolExecutor executor;
+
+    public ReportJobService(@Value("${sims.reports.cache-dir:${java.io.tmpdir}/sims-reports}") String cacheDir,
+                            @Value("${sims.reports.pool-size:2}") int poolSize,
+                            @Value("${sims.reports.queue-capacity:20}") int queueCapacity) {
+        this.cacheDir = Paths.get(cacheDir);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ReportJob submit(ReportType type) {
+        pruneFinishedJobs();
+        String version = datasetVersions.current(type);
+        String key = cacheKey(type, version);
+
+        ReportJob running = inFlight.get(key);
+        if (running != null) {
+            logger.info("Report {} for version {} already in progress as job {}", type, version, running.getId());
+            return running;
+        }
+
+        ReportJob job = ReportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .type(type)
+                .datasetVersion(version)
+                .status(ReportJob.Status.QUEUED)
+                .submittedAt(Instant.now())
+                .build();
+
+        Path cachedFile = cacheFile(type, version);
+        if (Files.exists(cachedFile)) {
+            job.setFile(cachedFile);
+            job.setCached(true);
+            job.setStatus(ReportJob.Status.COMPLETED);
+            job.setCompletedAt(Instant.now());
+            jobs.put(job.getId(), job);
+            logger.info("Report {} for version {} served from cache as job {}", type, version, job.getId());
+            return job;
+        }
+
+        ReportJob existing = inFlight.putIfAbsent(key, job);
+        if (existing != null) {
+            return existing;
+        }
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, key));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            jobs.remove(job.getId());
+            logger.warn("Report queue is full, rejecting {} report", type);
+            throw new IllegalStateException("Report queue is full, try again later");
+        }
+        logger.info("Queued {} report job {} for version {}", type, job.getId(), version);
+        return job;
+    }
+
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Returns the cached report for the current dataset version, if one has
+     * already been generated.
+     */
+    public Optional<Path> findCachedReport(ReportType type) {
+        Path file = cacheFile(type, datasetVersions.current(type));
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private void run(ReportJob job, String key) {
+        job.setStatus(ReportJob.Status.RUNNING);
+        long start = System.nanoTime();
+        Path target = cacheFile(job.getType(), job.getDatasetVersion());
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheDir);
+            temp = Files.createTempFile(cacheDir, key, ".part");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writeReport(job.getType(), out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setFile(target);
+            job.setStatus(ReportJob.Status.COMPLETED);
+            logger.info("Report job {} completed in {} ms ({} bytes)", job.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Files.size(target));
+            evictStaleReports(job.getType(), job.getDatasetVersion());
+        } catch (Exception e) {
+            job.setStatus(ReportJob.Status.FAILED);
+            job.setError(e.getMessage());
+            logger.error("Report job {} failed: {}", job.getId(), e.getMessage(), e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        } finally {
+            job.setCompletedAt(Instant.now());
+            inFlight.remove(key);
+        }
+    }
+
+    private void writeReport(ReportType type, OutputStream out) {
+        switch (type) {
+            case STUDENTS -> studentService.writeStudentReport(out);
+            case SCHEDULES -> classScheduleService.writeScheduleReport(out);
+        }
+    }
+
+    /**
+     * Deletes the reports of versions older than {@code version}. A newer one
+     * may already be there when a slower job for an earlier version finishes
+     * after it, and stays.
+     */
+    private void evictStaleReports(ReportType type, String version) {
+        String prefix = type.name().toLowerCase() + "-";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, prefix + "*.pdf")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String fileVersion = name.substring(prefix.length(), name.length() - ".pdf".length());
+                if (DatasetVersions.compare(fileVersion, version) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to evict stale {} reports: {}", type, e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    private Path cacheFile(ReportType type, String version) {
+        return cacheDir.resolve(cacheKey(type, version) + ".pdf");
+    }
+
+    private static String cacheKey(ReportType type, String version) {
+        return type.name().toLowerCase() + "-" + version;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sims.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Where reports served straight to a response are rendered. The controllers
+ * return them as a {@code StreamingResponseBody}, which Spring MVC runs on its
+ * async task executor; that thread hands the rendering to a fixed pool of
+ * CPU threads ({@code sims.reports.render-threads}, one per core by default)
+ * and waits for it. A render that finds every thread busy waits in a queue of
+ * {@code sims.reports.render-queue-capacity}; one that finds the queue full
+ * is refused so the controller can answer 503.
+ * <p>
+ * The pool is the same whatever the executor runs on. With
+ * {@code spring.threads.virtual.enabled} on Java 21 or later it is the only
+ * bound on a burst of report downloads; on Java 17 the property is ignored
+ * with a warning and requests stay on platform threads.
+ */
+@Component
+public class ReportRenderPool {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRenderPool.class);
+
+    private final ThreadPoolExecutor executor;
+
+    public ReportRenderPool(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                            @Value("${sims.reports.render-threads:0}") int threads,
+                            @Value("${sims.reports.render-queue-capacity:50}") int queueCapacity) {
+        int javaVersion = Runtime.version().feature();
+        if (virtualThreads && javaVersion < 21) {
+            logger.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads; "
+                    + "requests stay on platform threads", javaVersion);
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Rendering live reports on {} threads", poolSize);
+    }
+
+    /**
+     * Runs {@code writer} against {@code out} on the pool and returns once it
+     * is done. Returns false without writing anything
+     * when the pool's queue is full, so the caller can still answer 503.
+     */
+    public boolean render(OutputStream out, Consumer<OutputStream> writer) throws IOException {
+        Future<?> rendering;
+        try {
+            rendering = executor.submit(() -> writer.accept(out));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Report render queue is full, rejecting report");
+            return false;
+        }
+        try {
+            rendering.get();
+            return true;
+        } catch (InterruptedException e) {
+            rendering.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the report");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The public columns of each collection, in output order, shared by the
+ * exports and the JSON API. Names match the import format and the document
+ * fields, so they can be used directly in a Mongo projection.
+ */
+final class ResourceColumns {
+    static final Map<String, Function<Student, Object>> STUDENTS;
+    static final Map<String, Function<ClassSchedule, Object>> SCHEDULES;
+    static final Map<String, Function<Enrollment, Object>> ENROLLMENTS;
+
+    static {
+        Map<String, Function<Student, Object>> students = new LinkedHashMap<>();
+        students.put("id", Student::getId);
+        students.put("firstName", Student::getFirstName);
+        students.put("lastName", Student::getLastName);
+        students.put("email", Student::getEmail);
+        students.put("phone", Student::getPhone);
+        students.put("gradeLevel", Student::getGradeLevel);
+        students.put("address", Student::getAddress);
+        students.put("guardianName", Student::getGuardianName);
+        students.put("enrollmentDate", Student::getEnrollmentDate);
+        students.put("updatedAt", Student::getUpdatedAt);
+        STUDENTS = Collections.unmodifiableMap(students);
+
+        Map<String, Function<ClassSchedule, Object>> schedules = new LinkedHashMap<>();
+        schedules.put("id", ClassSchedule::getId);
+        schedules.put("className", ClassSchedule::getClassName);
+        schedules.put("instructor", ClassSchedule::getInstructor);
+        schedules.put("time", ClassSchedule::getTime);
+        schedules.put("room", ClassSchedule::getRoom);
+        schedules.put("duration", ClassSchedule::getDuration);
+        schedules.put("maxCapacity", ClassSchedule::getMaxCapacity);
+        schedules.put("enrolledCount", ClassSchedule::getEnrolledCount);
+        schedules.put("waitlist", ClassSchedule::getWaitlist);
+        schedules.put("updatedAt", ClassSchedule::getUpdatedAt);
+        SCHEDULES = Collections.unmodifiableMap(schedules);
+
+        Map<String, Function<Enrollment, Object>> enrollments = new LinkedHashMap<>();
+        enrollments.put("id", Enrollment::getId);
+        enrollments.put("studentId", Enrollment::getStudentId);
+        enrollments.put("scheduleId", Enrollment::getScheduleId);
+        enrollments.put("enrolledAt", Enrollment::getEnrolledAt);
+        ENROLLMENTS = Collections.unmodifiableMap(enrollments);
+    }
+
+    private ResourceColumns() {
+    }
+}
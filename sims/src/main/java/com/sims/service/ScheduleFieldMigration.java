@@ -0,0 +1,91 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.ReportType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Rewrites schedules stored before the typed fields existed: {@code maxCapacity} from a string
+ * to a number, plus {@code startMinute}, {@code endMinute} and
+ * {@code durationMinutes}. Reading such documents already works through the
+ * converter and {@link com.sims.timetable.ScheduleTimeCallbacks}; this makes
+ * them visible to indexed queries. Only documents still in the old shape are
+ * touched, so it is safe to run on each startup. Runs off the startup thread
+ * so an unreachable database does not hold up readiness.
+ */
+@Component
+public class ScheduleFieldMigration {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleFieldMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                int migrated = rewriteLegacy();
+                if (migrated > 0) {
+                    datasetVersions.bump(ReportType.SCHEDULES);
+                    logger.info("Migrated {} class schedules to typed capacity and time fields", migrated);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to migrate class schedule fields: {}", e.getMessage());
+            }
+        });
+    }
+
+    private int rewriteLegacy() {
+        Query legacy = Query.query(new Criteria().orOperator(
+                Criteria.where("maxCapacity").type(JsonSchemaObject.Type.STRING),
+                Criteria.where("startMinute").exists(false),
+                Criteria.where("durationMinutes").exists(false))).cursorBatchSize(BATCH_SIZE);
+        legacy.fields().include("time", "duration", "maxCapacity");
+        int count = 0;
+        // Read as entities: the converter turns the capacity into a number and the callback derives the rest
+        try (Stream<ClassSchedule> stream = mongoTemplate.stream(legacy, ClassSchedule.class)) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClassSchedule.class);
+            int pending = 0;
+            Iterator<ClassSchedule> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                ClassSchedule schedule = iterator.next();
+                bulk.updateOne(Query.query(Criteria.where("id").is(schedule.getId())), new Update()
+                        .set("maxCapacity", schedule.getMaxCapacity())
+                        .set("startMinute", schedule.getStartMinute())
+                        .set("endMinute", schedule.getEndMinute())
+                        .set("durationMinutes", schedule.getDurationMinutes())
+                        // Conditional GETs of the API compare versions, so a rewritten document must get a new one
+                        .currentDate("updatedAt").inc("version", 1));
+                count++;
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClassSchedule.class);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                bulk.execute();
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,449 @@
+package com.sims.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import com.sims.cache.EntityCache;
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.EnrollmentResult;
+import com.sims.model.Student;
+import com.sims.timetable.TimetableIndex;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Owns enrollments: the enrollment documents, the {@code enrolledCount} seat
+ * counter on each schedule and the waitlist. A seat is claimed by a single
+ * conditional {@code $inc} whose filter checks the counter against
+ * {@code maxCapacity} on the server, and only then is the enrollment written,
+ * so concurrent registrations cannot oversubscribe a schedule and no
+ * application-level lock is needed. If the write fails the seat is handed
+ * back. Waitlists hold at most {@code sims.enrollment.waitlist-max} students;
+ * the bound is applied inside the same atomic update that appends to one, so
+ * racing requests cannot overfill it.
+ */
+@Service
+public class ScheduleSeatService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleSeatService.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    // $toInt also covers capacities still stored as strings by older versions
+    static final MongoExpression HAS_FREE_SEAT = MongoExpression.create(
+            "{$lt: ['$enrolledCount', {$toInt: '$maxCapacity'}]}");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Value("${sims.enrollment.waitlist-enabled:true}")
+    private boolean waitlistEnabled;
+
+    @Value("${sims.enrollment.waitlist-max:200}")
+    private int waitlistMax;
+
+    /**
+     * Takes a seat for one student, or puts them on the waitlist when the
+     * schedule is full. The class time is held in the student's timetable
+     * while the seat is claimed, and {@link IllegalArgumentException} is
+     * thrown when it clashes with another of their classes. Costs an
+     * existence check, the seat update and the enrollment insert on the happy
+     * path. A waitlisted student is promoted straight away if a seat was freed
+     * in the meantime. Any failure to write the enrollment hands the seat and
+     * the class time back before it is rethrown.
+     */
+    public EnrollmentResult.Status reserve(String scheduleId, String studentId) {
+        if (isEnrolled(scheduleId, studentId)) {
+            return EnrollmentResult.Status.ALREADY_ENROLLED;
+        }
+        boolean claimed = timetableIndex.claimEnrollment(studentId, scheduleId);
+        UpdateResult seat = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(scheduleId).andOperator(Criteria.expr(HAS_FREE_SEAT))),
+                new Update().inc("enrolledCount", 1).currentDate("updatedAt").inc("version", 1),
+                ClassSchedule.class);
+        if (seat.getModifiedCount() > 0) {
+            entityCache.evictSchedule(scheduleId);
+            try {
+                mongoTemplate.insert(enrollment(scheduleId, studentId));
+                return EnrollmentResult.Status.ENROLLED;
+            } catch (DuplicateKeyException e) {
+                // A concurrent request enrolled the same student first; the timetable entry is theirs
+                giveBack(scheduleId, 1);
+                return EnrollmentResult.Status.ALREADY_ENROLLED;
+            } catch (RuntimeException e) {
+                giveBack(scheduleId, 1);
+                if (claimed) {
+                    timetableIndex.removeEnrollment(studentId, scheduleId);
+                }
+                throw e;
+            }
+        }
+        // Let go of the class time before queueing, a promotion claims it again
+        if (claimed) {
+            timetableIndex.removeEnrollment(studentId, scheduleId);
+        }
+        if (!mongoTemplate.exists(byId(scheduleId), ClassSchedule.class)) {
+            return EnrollmentResult.Status.NOT_FOUND;
+        }
+        if (!waitlistEnabled) {
+            return EnrollmentResult.Status.FULL;
+        }
+        if (waitlist(scheduleId, List.of(studentId)).isEmpty()) {
+            logger.info("Schedule {} and its waitlist are full, student {} turned away", scheduleId, studentId);
+            return EnrollmentResult.Status.WAITLIST_FULL;
+        }
+        // A seat released after the claim above failed was promoted before this student was queued
+        if (promote(scheduleId).contains(studentId)) {
+            return EnrollmentResult.Status.ENROLLED;
+        }
+        logger.info("Schedule {} is full, student {} added to waitlist", scheduleId, studentId);
+        return EnrollmentResult.Status.WAITLISTED;
+    }
+
+    /**
+     * Admits as many of {@code candidates} as there are free seats, in order.
+     * The seats are claimed together with one atomic pipeline update on the
+     * counter and the enrollments written with one unordered bulk insert.
+     * Returns the students that were given a seat, each {@code ENROLLED} or,
+     * when a concurrent request enrolled them first, {@code ALREADY_ENROLLED};
+     * {@code null} when the schedule does not exist. Any other write failure
+     * removes the enrollments this call stored, hands all the seats back and
+     * is rethrown.
+     */
+    public Map<String, EnrollmentResult.Status> reserveMany(String scheduleId, List<String> candidates) {
+        Query query = byId(scheduleId);
+        query.fields().include("enrolledCount", "maxCapacity");
+        // Raise the counter by the number of candidates, capped at capacity and never lowered
+        Document claim = new Document("$set", new Document("enrolledCount", new Document("$max", List.of(
+                "$enrolledCount",
+                new Document("$min", List.of(new Document("$toInt", "$maxCapacity"),
+                        new Document("$add", List.of("$enrolledCount", candidates.size()))))))));
+        ClassSchedule before = mongoTemplate.findAndModify(query,
+                AggregationUpdate.from(List.of(stage(claim), stage(Document.parse(
+                        "{$set: {updatedAt: '$$NOW', version: {$add: [{$ifNull: ['$version', 0]}, 1]}}}")))),
+                ClassSchedule.class);
+        if (before == null) {
+            return null;
+        }
+        entityCache.evictSchedule(scheduleId);
+        int capacity = before.getMaxCapacity();
+        int granted = Math.max(0, Math.min(capacity, before.getEnrolledCount() + candidates.size()) - before.getEnrolledCount());
+        if (granted == 0) {
+            return Map.of();
+        }
+
+        List<String> seated = candidates.subList(0, granted);
+        List<Enrollment> enrollments = new ArrayList<>(granted);
+        Map<String, EnrollmentResult.Status> admitted = new LinkedHashMap<>();
+        for (String studentId : seated) {
+            enrollments.add(enrollment(scheduleId, studentId));
+            admitted.put(studentId, EnrollmentResult.Status.ENROLLED);
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Enrollment.class).insert(enrollments).execute();
+        } catch (BulkOperationException e) {
+            Set<String> failed = new HashSet<>();
+            boolean otherErrors = false;
+            for (BulkWriteError error : e.getErrors()) {
+                String studentId = seated.get(error.getIndex());
+                failed.add(studentId);
+                if (error.getCode() == DUPLICATE_KEY) {
+                    // Enrolled concurrently by someone else, whose seat and class time it is
+                    admitted.put(studentId, EnrollmentResult.Status.ALREADY_ENROLLED);
+                } else {
+                    otherErrors = true;
+                }
+            }
+            if (otherErrors) {
+                List<String> stored = seated.stream().filter(studentId -> !failed.contains(studentId)).toList();
+                if (!stored.isEmpty()) {
+                    mongoTemplate.remove(Query.query(Criteria.where("scheduleId").is(scheduleId)
+                            .and("studentId").in(stored)), Enrollment.class);
+                }
+                giveBack(scheduleId, granted);
+                throw e;
+            }
+            giveBack(scheduleId, failed.size());
+        } catch (RuntimeException e) {
+            giveBack(scheduleId, granted);
+            throw e;
+        }
+        return admitted;
+    }
+
+    public boolean isWaitlistEnabled() {
+        return waitlistEnabled;
+    }
+
+    public boolean isEnrolled(String scheduleId, String studentId) {
+        return mongoTemplate.exists(enrollmentOf(scheduleId, studentId), Enrollment.class);
+    }
+
+    /** Returns which of {@code studentIds} already hold a seat in the schedule. */
+    public Set<String> enrolledAmong(String scheduleId, Collection<String> studentIds) {
+        Query query = Query.query(Criteria.where("scheduleId").is(scheduleId).and("studentId").in(studentIds));
+        query.fields().include("studentId");
+        Set<String> enrolled = new HashSet<>();
+        for (Enrollment enrollment : mongoTemplate.find(query, Enrollment.class)) {
+            enrolled.add(enrollment.getStudentId());
+        }
+        return enrolled;
+    }
+
+    /**
+     * Queues the students, in order, while the waitlist has room. One atomic
+     * pipeline update appends each student not on the list yet and cuts the
+     * result at the cap (never below its current length), and the document it
+     * returns says who made it, so a promotion racing the read cannot hide a
+     * student that was queued. Returns the students that are on the waitlist
+     * afterwards, which includes any that already were.
+     */
+    public Set<String> waitlist(String scheduleId, Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return Set.of();
+        }
+        Document current = new Document("$ifNull", List.of("$waitlist", List.of()));
+        List<Object> appended = new ArrayList<>();
+        appended.add(current);
+        for (String studentId : new LinkedHashSet<>(studentIds)) {
+            appended.add(new Document("$cond", List.of(
+                    new Document("$in", List.of(studentId, current)), List.of(), List.of(studentId))));
+        }
+        Document append = new Document("$set", new Document("waitlist", new Document("$slice", List.of(
+                new Document("$concatArrays", appended),
+                new Document("$max", List.of(waitlistMax, new Document("$size", current)))))));
+
+        Query query = byId(scheduleId);
+        query.fields().include("waitlist");
+        ClassSchedule after = mongoTemplate.findAndModify(query,
+                AggregationUpdate.from(List.of(stage(append), stage(Document.parse(
+                        "{$set: {updatedAt: '$$NOW', version: {$add: [{$ifNull: ['$version', 0]}, 1]}}}")))),
+                FindAndModifyOptions.options().returnNew(true), ClassSchedule.class);
+        entityCache.evictSchedule(scheduleId);
+        Set<String> queued = new LinkedHashSet<>(studentIds);
+        queued.retainAll(after == null || after.getWaitlist() == null ? Set.of() : after.getWaitlist());
+        return queued;
+    }
+
+    /**
+     * Gives up a student's seat (or waitlist place) and promotes the next
+     * waitlisted students into any seat that is now free. Returns true when the
+     * student held a seat or waitlist place.
+     */
+    public boolean release(String scheduleId, String studentId) {
+        long seats = mongoTemplate.remove(enrollmentOf(scheduleId, studentId), Enrollment.class).getDeletedCount();
+        if (seats > 0) {
+            timetableIndex.removeEnrollment(studentId, scheduleId);
+            giveBack(scheduleId, seats);
+        }
+        UpdateResult queued = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(scheduleId).and("waitlist").is(studentId)),
+                new Update().pull("waitlist", studentId).currentDate("updatedAt").inc("version", 1),
+                ClassSchedule.class);
+        entityCache.evictSchedule(scheduleId);
+        if (seats > 0) {
+            promote(scheduleId);
+        }
+        return seats > 0 || queued.getModifiedCount() > 0;
+    }
+
+    /**
+     * Takes the given students out of every schedule they are enrolled in or
+     * waitlisted on, in a fixed number of round trips however many students
+     * and schedules there are: one read of their enrollments, one delete of
+     * exactly those, one bulk counter update, and one read and one
+     * {@code $pull} for the waitlists. If some of those seats are released
+     * concurrently, the counters of their schedules are recounted instead,
+     * which takes one more read. Only the schedules touched are evicted from
+     * the cache. Freed seats are not promoted here; returns the schedules
+     * that lost seats so the caller can {@link #promote(String)} them.
+     */
+    public Set<String> releaseAll(Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return Set.of();
+        }
+        Query held = Query.query(Criteria.where("studentId").in(studentIds));
+        held.fields().include("scheduleId");
+        Map<String, Long> seatsBySchedule = new HashMap<>();
+        List<String> enrollmentIds = new ArrayList<>();
+        for (Enrollment enrollment : mongoTemplate.find(held, Enrollment.class)) {
+            enrollmentIds.add(enrollment.getId());
+            seatsBySchedule.merge(enrollment.getScheduleId(), 1L, Long::sum);
+        }
+        if (!enrollmentIds.isEmpty()) {
+            // By id, so a seat taken after the read is neither deleted nor counted
+            long deleted = mongoTemplate.remove(Query.query(Criteria.where("id").in(enrollmentIds)), Enrollment.class)
+                    .getDeletedCount();
+            BulkOperations counters = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClassSchedule.class);
+            if (deleted == enrollmentIds.size()) {
+                seatsBySchedule.forEach((scheduleId, seats) -> counters.updateOne(byId(scheduleId),
+                        new Update().inc("enrolledCount", -seats).currentDate("updatedAt").inc("version", 1)));
+            } else {
+                // Someone else released some of these seats in between and decremented for them; count what is left
+                logger.warn("{} of {} enrollments were released concurrently, recounting {} schedules",
+                        enrollmentIds.size() - deleted, enrollmentIds.size(), seatsBySchedule.size());
+                Map<String, Long> remaining = countBy("scheduleId",
+                        Criteria.where("scheduleId").in(seatsBySchedule.keySet()));
+                seatsBySchedule.keySet().forEach(scheduleId -> counters.updateOne(byId(scheduleId),
+                        new Update().set("enrolledCount", remaining.getOrDefault(scheduleId, 0L))
+                                .currentDate("updatedAt").inc("version", 1)));
+            }
+            counters.execute();
+        }
+        timetableIndex.removeStudents(studentIds);
+        Query waiting = Query.query(Criteria.where("waitlist").in(studentIds));
+        waiting.fields().include("id");
+        List<String> waitlisted = mongoTemplate.find(waiting, ClassSchedule.class).stream()
+                .map(ClassSchedule::getId).toList();
+        if (!waitlisted.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(waitlisted)),
+                    new Update().pullAll("waitlist", studentIds.toArray()).currentDate("updatedAt").inc("version", 1),
+                    ClassSchedule.class);
+        }
+        entityCache.evictSchedules(seatsBySchedule.keySet());
+        entityCache.evictSchedules(waitlisted);
+        return seatsBySchedule.keySet();
+    }
+
+    /** Drops every enrollment in the given schedules; used when the schedules themselves are deleted. */
+    public long removeSchedules(Collection<String> scheduleIds) {
+        return mongoTemplate.remove(Query.query(Criteria.where("scheduleId").in(scheduleIds)), Enrollment.class)
+                .getDeletedCount();
+    }
+
+    /** Number of schedules each student is enrolled in, for the given students only. */
+    public Map<String, Long> countSchedulesByStudent(Collection<String> studentIds) {
+        return countBy("studentId", Criteria.where("studentId").in(studentIds));
+    }
+
+    /**
+     * Moves waitlisted students into free seats, head of the queue first. Each
+     * promotion is a single pipeline update guarded by the capacity check, so a
+     * racing direct enrollment can never push the schedule over capacity.
+     * Waitlisted students hold no class time, so each one is checked for
+     * clashes on the way in; one who has since taken another class at the same
+     * time, or who has been deleted, loses their place and the seat goes to
+     * the next. When the enrollment cannot be written the seat and class time
+     * are handed back, the student is put back at the head of the queue and
+     * the error is rethrown.
+     */
+    public List<String> promote(String scheduleId) {
+        Query query = Query.query(Criteria.where("id").is(scheduleId)
+                .and("waitlist.0").exists(true)
+                .andOperator(Criteria.expr(HAS_FREE_SEAT)));
+        query.fields().include("waitlist");
+        AggregationUpdate promoteHead = AggregationUpdate.from(List.of(stage(Document.parse("""
+                {$set: {
+                    waitlist: {$slice: ['$waitlist', 1, {$max: [1, {$size: '$waitlist'}]}]},
+                    enrolledCount: {$add: ['$enrolledCount', 1]},
+                    updatedAt: '$$NOW',
+                    version: {$add: [{$ifNull: ['$version', 0]}, 1]}
+                }}"""))));
+
+        List<String> promoted = new ArrayList<>();
+        ClassSchedule before;
+        while ((before = mongoTemplate.findAndModify(query, promoteHead, ClassSchedule.class)) != null) {
+            String studentId = before.getWaitlist().get(0);
+            entityCache.evictSchedule(scheduleId);
+            if (!mongoTemplate.exists(byId(studentId), Student.class)) {
+                giveBack(scheduleId, 1);
+                logger.info("Dropped deleted student {} from the waitlist of schedule {}", studentId, scheduleId);
+                continue;
+            }
+            boolean claimed;
+            try {
+                claimed = timetableIndex.claimEnrollment(studentId, scheduleId);
+            } catch (IllegalArgumentException e) {
+                giveBack(scheduleId, 1);
+                logger.info("Dropped student {} from the waitlist of schedule {}: {}", studentId, scheduleId, e.getMessage());
+                continue;
+            }
+            try {
+                mongoTemplate.insert(enrollment(scheduleId, studentId));
+                promoted.add(studentId);
+                logger.info("Promoted student {} from the waitlist of schedule {}", studentId, scheduleId);
+            } catch (DuplicateKeyException e) {
+                giveBack(scheduleId, 1);
+            } catch (RuntimeException e) {
+                // Undo the promotion so the student keeps their place at the head of the queue
+                giveBack(scheduleId, 1);
+                if (claimed) {
+                    timetableIndex.removeEnrollment(studentId, scheduleId);
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(scheduleId).and("waitlist").ne(studentId)),
+                        new Update().push("waitlist").atPosition(0).value(studentId).currentDate("updatedAt").inc("version", 1),
+                        ClassSchedule.class);
+                entityCache.evictSchedule(scheduleId);
+                throw e;
+            }
+        }
+        return promoted;
+    }
+
+    private void giveBack(String scheduleId, long seats) {
+        if (seats == 0) {
+            return;
+        }
+        mongoTemplate.updateFirst(byId(scheduleId), new Update().inc("enrolledCount", -seats).currentDate("updatedAt").inc("version", 1),
+                ClassSchedule.class);
+        entityCache.evictSchedule(scheduleId);
+    }
+
+    private Map<String, Long> countBy(String field, Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group(field).count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Enrollment.class, Document.class)) {
+            counts.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private static Enrollment enrollment(String scheduleId, String studentId) {
+        return Enrollment.builder().scheduleId(scheduleId).studentId(studentId).enrolledAt(Instant.now()).build();
+    }
+
+    private static Query enrollmentOf(String scheduleId, String studentId) {
+        return Query.query(Criteria.where("studentId").is(studentId).and("scheduleId").is(scheduleId));
+    }
+
+    private static AggregationOperation stage(Document document) {
+        return context -> document;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+}
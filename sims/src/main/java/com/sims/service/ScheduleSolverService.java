@@ -0,0 +1,202 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.ReportType;
+import com.sims.model.SolverPlan;
+import com.sims.model.SolverRequest;
+import com.sims.search.TypeaheadIndex;
+import com.sims.timetable.ScheduleTimes;
+import com.sims.timetable.TimeSlot;
+import com.sims.timetable.TimetableIndex;
+import com.sims.timetable.TimetableSolver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Places a batch of classes into rooms and time slots with
+ * {@link TimetableSolver}, around everything already booked. A preview only
+ * computes the plan; committing it re-checks every placement against the
+ * live timetable and writes all of them with one bulk insert.
+ */
+@Service
+public class ScheduleSolverService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleSolverService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${sims.solver.time-budget:5s}")
+    private Duration defaultBudget;
+
+    @Value("${sims.solver.max-time-budget:60s}")
+    private Duration maxBudget;
+
+    // 0 uses every core
+    @Value("${sims.solver.threads:0}")
+    private int threads;
+
+    public SolverPlan preview(SolverRequest request) {
+        if (request.getClasses().isEmpty() || request.getRooms().isEmpty() || request.getSlots().isEmpty()) {
+            throw new IllegalArgumentException("Classes, rooms and slots are all required");
+        }
+        List<ClassSchedule> classes = request.getClasses();
+        List<String> instructors = new ArrayList<>(classes.size());
+        int[] seatsNeeded = new int[classes.size()];
+        int[] durations = new int[classes.size()];
+        for (int c = 0; c < classes.size(); c++) {
+            ClassSchedule schedule = classes.get(c);
+            if (schedule.getInstructor() == null || schedule.getInstructor().isBlank()) {
+                throw new IllegalArgumentException("Class " + (c + 1) + " has no instructor");
+            }
+            instructors.add(schedule.getInstructor());
+            seatsNeeded[c] = schedule.getMaxCapacity() == null ? 0 : schedule.getMaxCapacity();
+            durations[c] = durationOf(schedule, c);
+        }
+        List<String> rooms = new ArrayList<>(request.getRooms().size());
+        int[] capacities = new int[request.getRooms().size()];
+        for (int r = 0; r < capacities.length; r++) {
+            SolverRequest.Room room = request.getRooms().get(r);
+            if (room.getName() == null || room.getName().isBlank()) {
+                throw new IllegalArgumentException("Room " + (r + 1) + " has no name");
+            }
+            rooms.add(room.getName().trim());
+            capacities[r] = room.getCapacity() == null ? Integer.MAX_VALUE : room.getCapacity();
+        }
+        List<TimeSlot> slots = request.getSlots().stream().distinct().map(TimeSlot::parse).toList();
+        Duration budget = request.getTimeBudgetMillis() == null
+                ? defaultBudget
+                : Duration.ofMillis(Math.max(0, request.getTimeBudgetMillis()));
+        if (budget.compareTo(maxBudget) > 0) {
+            budget = maxBudget;
+        }
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        logger.info("Solving placement of {} classes into {} rooms x {} slots ({} threads, budget {})",
+                classes.size(), rooms.size(), slots.size(), workers, budget);
+        long start = System.nanoTime();
+        TimetableSolver solver = new TimetableSolver(
+                new TimetableSolver.Problem(instructors, seatsNeeded, durations, rooms, capacities, slots),
+                timetableIndex::isRoomFree, timetableIndex::isInstructorFree);
+        TimetableSolver.Result result = solver.solve(budget, workers, System.nanoTime());
+
+        SolverPlan plan = new SolverPlan();
+        for (int c = 0; c < classes.size(); c++) {
+            ClassSchedule schedule = copyOf(classes.get(c));
+            if (result.rooms()[c] < 0) {
+                plan.getUnplaced().add(schedule);
+                continue;
+            }
+            TimeSlot slot = slots.get(result.slots()[c]);
+            // A class shorter than its slot books only its own length, from the start of the slot
+            TimeSlot booked = durations[c] == 0 ? slot : new TimeSlot(slot.start(), slot.start() + durations[c]);
+            schedule.setRoom(rooms.get(result.rooms()[c]));
+            schedule.setTime(booked.toString());
+            if (schedule.getDuration() == null || schedule.getDuration().isBlank()) {
+                schedule.setDuration(booked.length() + " minutes");
+            }
+            plan.getPlaced().add(schedule);
+        }
+        plan.setAttempts(result.attempts());
+        plan.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Placed {} of {} classes in {} ms over {} attempts",
+                plan.getPlaced().size(), classes.size(), plan.getElapsedMillis(), plan.getAttempts());
+        return plan;
+    }
+
+    /**
+     * Writes a previewed plan. Every class is validated and booked in the
+     * timetable first; if any of them clashes, say because something was
+     * booked since the preview, nothing is written. Returns the saved classes.
+     */
+    public List<ClassSchedule> commit(List<ClassSchedule> placements) {
+        logger.info("Attempting to commit {} placed classes", placements.size());
+        if (placements.isEmpty()) {
+            return placements;
+        }
+        for (int i = 0; i < placements.size(); i++) {
+            Set<ConstraintViolation<ClassSchedule>> violations = validator.validate(placements.get(i));
+            if (!violations.isEmpty()) {
+                Set<String> messages = new TreeSet<>();
+                for (ConstraintViolation<ClassSchedule> violation : violations) {
+                    messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                }
+                throw new IllegalArgumentException("Class " + (i + 1) + ": " + String.join("; ", messages));
+            }
+        }
+
+        List<ClassSchedule> claimed = new ArrayList<>(placements.size());
+        try {
+            for (ClassSchedule schedule : placements) {
+                // Ids are always fresh so a plan committed twice cannot overwrite anything
+                schedule.setId(new ObjectId().toHexString());
+                schedule.setEnrolledCount(0);
+                schedule.setWaitlist(new ArrayList<>());
+                try {
+                    timetableIndex.claim(schedule);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(schedule.getClassName() + ": " + e.getMessage(), e);
+                }
+                claimed.add(schedule);
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ClassSchedule.class).insert(placements).execute();
+        } catch (RuntimeException e) {
+            for (ClassSchedule schedule : claimed) {
+                timetableIndex.restore(schedule.getId(), null);
+            }
+            logger.error("Failed to commit placed classes: {}", e.getMessage(), e);
+            throw e;
+        }
+        placements.forEach(typeaheadIndex::put);
+        datasetVersions.bump(ReportType.SCHEDULES);
+        logger.info("Committed {} placed classes", placements.size());
+        return placements;
+    }
+
+    /** The class length in minutes, or 0 when none is given and it takes the whole slot it gets. */
+    private static int durationOf(ClassSchedule schedule, int index) {
+        if (schedule.getDuration() == null || schedule.getDuration().isBlank()) {
+            return schedule.getDurationMinutes() == null ? 0 : schedule.getDurationMinutes();
+        }
+        Integer minutes = ScheduleTimes.durationMinutes(schedule.getDuration());
+        if (minutes == null) {
+            throw new IllegalArgumentException("Class " + (index + 1) + " has a duration that cannot be read: "
+                    + schedule.getDuration());
+        }
+        return minutes;
+    }
+
+    private static ClassSchedule copyOf(ClassSchedule schedule) {
+        return ClassSchedule.builder()
+                .className(schedule.getClassName())
+                .instructor(schedule.getInstructor())
+                .duration(schedule.getDuration())
+                .maxCapacity(schedule.getMaxCapacity())
+                .build();
+    }
+}
@@ -5,30 +5,81 @@ import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.mongodb.client.result.UpdateResult;
+import com.sims.cache.EntityCache;
+import com.sims.metrics.ReportMetrics;
 import com.sims.model.ClassSchedule;
+import com.sims.model.CursorPage;
+import com.sims.model.Enrollment;
+import com.sims.model.EnrollmentResult;
+import com.sims.model.ReportType;
 import com.sims.model.Student;
-import com.sims.repository.ClassScheduleRepository;
+import com.sims.model.StudentRow;
+import com.sims.model.Suggestion;
 import com.sims.repository.StudentRepository;
+import com.sims.search.SearchTokens;
+import com.sims.search.TypeaheadIndex;
+import com.sims.timetable.TimetableIndex;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
+@Timed("sims.service")
 public class StudentService {
     private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
+    private static final int REPORT_BATCH_SIZE = 500;
+    private static final int REPORT_FLUSH_ROWS = 200;
 
     @Autowired
     private StudentRepository studentRepository;
 
     @Autowired
-    private ClassScheduleRepository classScheduleRepository;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DatasetVersions datasetVersions;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    @Autowired
+    private ScheduleSeatService scheduleSeatService;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private EntityCache entityCache;
 
     @Transactional
     public void enrollStudent(Student student) {
@@ -40,7 +91,14 @@ public class StudentService {
             if (studentRepository.findByEmail(student.getEmail()).isPresent()) {
                 throw new IllegalArgumentException("Email already exists");
             }
-            studentRepository.save(student);
+            try {
+                studentRepository.save(student);
+            } catch (DuplicateKeyException e) {
+                // Taken by a concurrent save between the check and the insert
+                throw new IllegalArgumentException("Email already exists");
+            }
+            typeaheadIndex.put(student);
+            datasetVersions.bump(ReportType.STUDENTS);
             logger.info("Student saved successfully with ID: {}", student.getId());
         } catch (Exception e) {
             logger.error("Failed to save student: {}", e.getMessage(), e);
@@ -48,18 +106,58 @@ public class StudentService {
         }
     }
 
-    public List<Student> getAllStudents() {
-        List<Student> students = studentRepository.findAll();
-        logger.info("Retrieved {} students", students.size());
-        return students;
+    public CursorPage<StudentRow> getStudentsPage(String after, String before, int size, String sort) {
+        CursorPage<StudentRow> page = new KeysetPager<>(
+                studentRepository::findRowsBy,
+                studentRepository::findRowsByIdGreaterThan,
+                studentRepository::findRowsByIdLessThan,
+                StudentRow::getId).page(after, before, size, sort);
+        logger.info("Retrieved page of {} students (after={}, before={})", page.getContent().size(), after, before);
+        return page;
+    }
+
+    /**
+     * Keyset page of the students who are neither enrolled in nor waitlisted
+     * on a schedule, optionally narrowed by a search term. Enrolled students
+     * are excluded on the server with a {@code $lookup} into the enrollment
+     * index per candidate row, so neither the roster nor the student body is
+     * loaded into memory.
+     */
+    public CursorPage<Student> getAvailableStudentsPage(ClassSchedule schedule, String searchTerm,
+                                                       String after, String before, int size) {
+        Criteria available = new Criteria();
+        if (!schedule.getWaitlist().isEmpty()) {
+            available = Criteria.where("id").nin(schedule.getWaitlist());
+        }
+        List<String> terms = SearchTokens.queryTerms(searchTerm);
+        if (!terms.isEmpty()) {
+            available = available.and("searchTokens").all(terms);
+        }
+        Criteria filter = available;
+        String scheduleId = schedule.getId();
+        CursorPage<Student> page = new KeysetPager<>(
+                pageable -> findNotEnrolled(scheduleId, filter, pageable),
+                (id, pageable) -> findNotEnrolled(scheduleId, new Criteria().andOperator(filter, Criteria.where("id").gt(id)), pageable),
+                (id, pageable) -> findNotEnrolled(scheduleId, new Criteria().andOperator(filter, Criteria.where("id").lt(id)), pageable),
+                Student::getId).page(after, before, size, "asc");
+        logger.info("Retrieved page of {} students available for schedule {}", page.getContent().size(), scheduleId);
+        return page;
+    }
+
+    /** Number of schedules each of the given students is enrolled in; students with none are absent. */
+    public Map<String, Long> countSchedules(Collection<StudentRow> students) {
+        if (students.isEmpty()) {
+            return Map.of();
+        }
+        return scheduleSeatService.countSchedulesByStudent(students.stream().map(StudentRow::getId).toList());
     }
 
     public Student getStudentById(String id) {
         logger.info("Retrieving student with ID: {}", id);
-        Optional<Student> student = studentRepository.findById(id);
-        if (student.isPresent()) {
+        Student student = entityCache.student(id, key -> studentRepository.findById(key).orElse(null));
+        if (student != null) {
             logger.info("Student found with ID: {}", id);
-            return student.get();
+            return student;
         } else {
             logger.warn("Student not found with ID: {}", id);
             return null;
@@ -70,17 +168,38 @@ public class StudentService {
     public void updateStudent(Student student) {
         logger.info("Attempting to update student: {}", student);
         try {
-            if (studentRepository.existsById(student.getId())) {
-                Optional<Student> existing = studentRepository.findByEmail(student.getEmail());
-                if (existing.isPresent() && !existing.get().getId().equals(student.getId())) {
-                    throw new IllegalArgumentException("Email already exists");
-                }
-                studentRepository.save(student);
-                logger.info("Student updated successfully with ID: {}", student.getId());
-            } else {
+            Optional<Student> existing = studentRepository.findByEmail(student.getEmail());
+            if (existing.isPresent() && !existing.get().getId().equals(student.getId())) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            // $set only the editable fields so the derived search fields are refreshed with them
+            SearchTokens.apply(student);
+            Update update = new Update()
+                    .set("firstName", student.getFirstName())
+                    .set("lastName", student.getLastName())
+                    .set("email", student.getEmail())
+                    .set("phone", student.getPhone())
+                    .set("gradeLevel", student.getGradeLevel())
+                    .set("address", student.getAddress())
+                    .set("guardianName", student.getGuardianName())
+                    .set("enrollmentDate", student.getEnrollmentDate())
+                    .set("searchWords", student.getSearchWords())
+                    .set("searchTokens", student.getSearchTokens())
+                    .currentDate("updatedAt").inc("version", 1);
+            UpdateResult result;
+            try {
+                result = mongoTemplate.updateFirst(byId(student.getId()), update, Student.class);
+            } catch (DuplicateKeyException e) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            if (result.getMatchedCount() == 0) {
                 logger.error("Student with ID {} does not exist", student.getId());
                 throw new IllegalArgumentException("Student not found");
             }
+            entityCache.evictStudent(student.getId());
+            typeaheadIndex.put(student);
+            datasetVersions.bump(ReportType.STUDENTS);
+            logger.info("Student updated successfully with ID: {}", student.getId());
         } catch (Exception e) {
             logger.error("Failed to update student: {}", e.getMessage(), e);
             throw e;
@@ -91,72 +210,313 @@ public class StudentService {
     public boolean deleteStudent(String id) {
         logger.info("Attempting to delete student with ID: {}", id);
         try {
-            Optional<Student> studentOpt = studentRepository.findById(id);
-            if (studentOpt.isPresent()) {
-                Student student = studentOpt.get();
-                for (String scheduleId : student.getScheduleIds()) {
-                    Optional<ClassSchedule> scheduleOpt = classScheduleRepository.findById(scheduleId);
-                    scheduleOpt.ifPresent(schedule -> {
-                        schedule.getStudentIds().remove(id);
-                        classScheduleRepository.save(schedule);
-                    });
-                }
-                studentRepository.deleteById(id);
-                logger.info("Student deleted successfully with ID: {}", id);
-                return true;
-            } else {
+            Query query = byId(id);
+            query.fields().include("id");
+            Student removed = mongoTemplate.findAndRemove(query, Student.class);
+            if (removed == null) {
                 logger.warn("Student with ID {} does not exist", id);
                 return false;
             }
+            typeaheadIndex.remove(Suggestion.Type.STUDENT, id);
+            entityCache.evictStudent(id);
+            Set<String> freed = scheduleSeatService.releaseAll(List.of(id));
+            promoteWaitlists(freed);
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Student deleted successfully with ID: {} (removed from {} schedules)", id, freed.size());
+            return true;
         } catch (Exception e) {
             logger.error("Failed to delete student: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Deletes many students at once with a fixed number of round trips however
+     * many ids and schedules are involved: one read, one delete, and the
+     * batched release of their enrollments. Only handing freed seats to
+     * waitlisted students costs round trips per student promoted. Returns how
+     * many students were deleted.
+     */
+    public long deleteStudents(Collection<String> ids) {
+        logger.info("Attempting to delete {} students", ids.size());
+        try {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Query query = Query.query(Criteria.where("id").in(ids));
+            query.fields().include("id");
+            List<Student> existing = mongoTemplate.find(query, Student.class);
+            if (existing.isEmpty()) {
+                logger.warn("None of the {} students exist", ids.size());
+                return 0;
+            }
+            Set<String> deletedIds = new HashSet<>();
+            for (Student student : existing) {
+                deletedIds.add(student.getId());
+            }
+            long deleted = mongoTemplate.remove(Query.query(Criteria.where("id").in(deletedIds)), Student.class)
+                    .getDeletedCount();
+            for (String id : deletedIds) {
+                typeaheadIndex.remove(Suggestion.Type.STUDENT, id);
+            }
+            entityCache.evictStudents(deletedIds);
+            Set<String> freed = scheduleSeatService.releaseAll(deletedIds);
+            promoteWaitlists(freed);
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Deleted {} students (removed from {} schedules)", deleted, freed.size());
+            return deleted;
+        } catch (Exception e) {
+            logger.error("Failed to delete students: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /** Hands seats freed by a deletion to waitlisted students. */
+    private void promoteWaitlists(Collection<String> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        Query waiting = Query.query(Criteria.where("id").in(scheduleIds).and("waitlist.0").exists(true));
+        waiting.fields().include("id");
+        for (ClassSchedule schedule : mongoTemplate.find(waiting, ClassSchedule.class)) {
+            scheduleSeatService.promote(schedule.getId());
+        }
+    }
+
+    /**
+     * Enrolls a student when the schedule has a free seat and does not clash
+     * with another class the student is in. When it is full the student is
+     * waitlisted, or rejected if the waitlist is disabled or full.
+     */
     @Transactional
-    public void enrollInSchedule(String studentId, String scheduleId) {
+    public EnrollmentResult.Status enrollInSchedule(String studentId, String scheduleId) {
         logger.info("Attempting to enroll student {} in schedule {}", studentId, scheduleId);
         try {
-            Optional<Student> studentOpt = studentRepository.findById(studentId);
-            Optional<ClassSchedule> scheduleOpt = classScheduleRepository.findById(scheduleId);
-            if (studentOpt.isPresent() && scheduleOpt.isPresent()) {
-                Student student = studentOpt.get();
-                ClassSchedule schedule = scheduleOpt.get();
-                if (!student.getScheduleIds().contains(scheduleId)) {
-                    student.getScheduleIds().add(scheduleId);
-                    schedule.getStudentIds().add(studentId);
-                    studentRepository.save(student);
-                    classScheduleRepository.save(schedule);
-                    logger.info("Enrollment successful");
-                } else {
-                    throw new IllegalArgumentException("Student already enrolled in this schedule");
+            if (!mongoTemplate.exists(byId(studentId), Student.class)) {
+                throw new IllegalArgumentException("Student or schedule not found");
+            }
+            EnrollmentResult.Status status = scheduleSeatService.reserve(scheduleId, studentId);
+            switch (status) {
+                case NOT_FOUND -> throw new IllegalArgumentException("Student or schedule not found");
+                case ALREADY_ENROLLED -> throw new IllegalArgumentException("Student already enrolled in this schedule");
+                case FULL -> throw new IllegalArgumentException("Schedule is full");
+                case WAITLIST_FULL -> throw new IllegalArgumentException("Schedule and its waitlist are full");
+                case WAITLISTED -> {
+                    datasetVersions.bump(ReportType.SCHEDULES);
+                    logger.info("Student {} waitlisted for schedule {}", studentId, scheduleId);
+                    return status;
+                }
+                default -> {
                 }
-            } else {
+            }
+            if (!mongoTemplate.exists(byId(studentId), Student.class)) {
+                // Student was deleted in between; give the seat back
+                scheduleSeatService.release(scheduleId, studentId);
                 throw new IllegalArgumentException("Student or schedule not found");
             }
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Enrollment successful");
+            return status;
         } catch (Exception e) {
             logger.error("Failed to enroll in schedule: {}", e.getMessage(), e);
             throw e;
         }
     }
 
-    public List<Student> searchStudents(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getAllStudents();
+    @Transactional
+    public void unenrollFromSchedule(String studentId, String scheduleId) {
+        logger.info("Attempting to unenroll student {} from schedule {}", studentId, scheduleId);
+        try {
+            if (!scheduleSeatService.release(scheduleId, studentId)) {
+                throw new IllegalArgumentException("Student is not enrolled in this schedule");
+            }
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            logger.info("Unenrollment successful");
+        } catch (Exception e) {
+            logger.error("Failed to unenroll from schedule: {}", e.getMessage(), e);
+            throw e;
         }
-        return studentRepository.findByNameOrEmailContainingIgnoreCase(searchTerm.trim());
+    }
+
+    /**
+     * Enrolls many students into one schedule with a fixed number of round
+     * trips: one id lookup for the students, one for existing enrollments, one
+     * atomic pipeline update that claims as many seats as are free, and one
+     * bulk insert of the enrollments. Students that do not fit are waitlisted
+     * while the waitlist has room and turned away after that; students for
+     * whom the class clashes with another of theirs are skipped.
+     */
+    @Transactional
+    public List<EnrollmentResult> enrollStudentsInSchedule(String scheduleId, Collection<String> studentIds) {
+        logger.info("Attempting to bulk enroll {} students in schedule {}", studentIds.size(), scheduleId);
+        try {
+            Set<String> requested = new LinkedHashSet<>(studentIds);
+            requested.removeIf(id -> id == null || id.isBlank());
+
+            Set<String> found = findIds(Criteria.where("id").in(requested));
+            Set<String> alreadyEnrolled = scheduleSeatService.enrolledAmong(scheduleId, found);
+            List<String> candidates = new ArrayList<>();
+            Set<String> claimed = new HashSet<>();
+            Set<String> conflicting = new HashSet<>();
+            for (String studentId : requested) {
+                if (found.contains(studentId) && !alreadyEnrolled.contains(studentId)) {
+                    try {
+                        if (timetableIndex.claimEnrollment(studentId, scheduleId)) {
+                            claimed.add(studentId);
+                        }
+                        candidates.add(studentId);
+                    } catch (IllegalArgumentException e) {
+                        conflicting.add(studentId);
+                    }
+                }
+            }
+
+            Map<String, EnrollmentResult.Status> admitted = null;
+            try {
+                admitted = scheduleSeatService.reserveMany(scheduleId, candidates);
+            } finally {
+                // Class times stay claimed only for students who hold the seat now
+                if (admitted != null) {
+                    claimed.removeAll(admitted.keySet());
+                }
+                for (String studentId : claimed) {
+                    timetableIndex.removeEnrollment(studentId, scheduleId);
+                }
+            }
+            if (admitted == null) {
+                throw new IllegalArgumentException("Schedule not found");
+            }
+            List<String> overflow = new ArrayList<>();
+            List<EnrollmentResult> results = new ArrayList<>(requested.size());
+            for (String studentId : requested) {
+                EnrollmentResult.Status status;
+                if (!found.contains(studentId)) {
+                    status = EnrollmentResult.Status.NOT_FOUND;
+                } else if (alreadyEnrolled.contains(studentId)) {
+                    status = EnrollmentResult.Status.ALREADY_ENROLLED;
+                } else if (conflicting.contains(studentId)) {
+                    status = EnrollmentResult.Status.CONFLICT;
+                } else if (admitted.containsKey(studentId)) {
+                    status = admitted.get(studentId);
+                } else {
+                    overflow.add(studentId);
+                    status = scheduleSeatService.isWaitlistEnabled()
+                            ? EnrollmentResult.Status.WAITLISTED
+                            : EnrollmentResult.Status.FULL;
+                }
+                results.add(new EnrollmentResult(studentId, status));
+            }
+
+            if (scheduleSeatService.isWaitlistEnabled() && !overflow.isEmpty()) {
+                Set<String> queued = scheduleSeatService.waitlist(scheduleId, overflow);
+                // Seats released after the claim above went to the queue before the overflow joined it
+                Set<String> promoted = new HashSet<>(scheduleSeatService.promote(scheduleId));
+                for (EnrollmentResult result : results) {
+                    if (promoted.contains(result.getStudentId())) {
+                        result.setStatus(EnrollmentResult.Status.ENROLLED);
+                    } else if (result.getStatus() == EnrollmentResult.Status.WAITLISTED
+                            && !queued.contains(result.getStudentId())) {
+                        result.setStatus(EnrollmentResult.Status.WAITLIST_FULL);
+                    }
+                }
+            }
+            datasetVersions.bump(ReportType.STUDENTS, ReportType.SCHEDULES);
+            long enrolled = admitted.values().stream().filter(EnrollmentResult.Status.ENROLLED::equals).count();
+            logger.info("Bulk enrollment into schedule {} finished: {} enrolled, {} over capacity, {} already enrolled, {} clashing, {} not found",
+                    scheduleId, enrolled, overflow.size(), alreadyEnrolled.size() + admitted.size() - enrolled, conflicting.size(),
+                    requested.size() - found.size());
+            return results;
+        } catch (Exception e) {
+            logger.error("Failed to bulk enroll in schedule: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+
+    private List<Student> findNotEnrolled(String scheduleId, Criteria criteria, Pageable pageable) {
+        org.bson.Document enrolled = new org.bson.Document("$lookup", new org.bson.Document()
+                .append("from", mongoTemplate.getCollectionName(Enrollment.class))
+                .append("let", new org.bson.Document("sid", new org.bson.Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new org.bson.Document("$match", new org.bson.Document("$expr", new org.bson.Document("$and", List.of(
+                                new org.bson.Document("$eq", List.of("$studentId", "$$sid")),
+                                new org.bson.Document("$eq", List.of("$scheduleId", new org.bson.Document("$literal", scheduleId))))))),
+                        new org.bson.Document("$limit", 1)))
+                .append("as", "enrolled"));
+        TypedAggregation<Student> aggregation = Aggregation.newAggregation(Student.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(pageable.getSort()),
+                context -> enrolled,
+                Aggregation.match(Criteria.where("enrolled").size(0)),
+                Aggregation.limit(pageable.getPageSize()),
+                Aggregation.project("firstName", "lastName", "email"));
+        return mongoTemplate.aggregate(aggregation, Student.class).getMappedResults();
+    }
+
+    private Set<String> findIds(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("id");
+        Set<String> ids = new HashSet<>();
+        for (Student student : mongoTemplate.find(query, Student.class)) {
+            ids.add(student.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Relevance-ranked prefix search served by the {@code searchTokens} index.
+     * The cursors on the returned page are page numbers rather than ids.
+     */
+    public CursorPage<StudentRow> searchStudents(String searchTerm, int page, int size) {
+        List<String> terms = SearchTokens.queryTerms(searchTerm);
+        if (terms.isEmpty()) {
+            return getStudentsPage(null, null, size, "asc");
+        }
+        int pageSize = KeysetPager.clampSize(size);
+        int pageNumber = Math.max(page, 0);
+        List<StudentRow> rows = studentRepository.searchByTokens(terms, (long) pageNumber * pageSize, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        logger.info("Search for {} returned {} rows on page {}", terms, rows.size(), pageNumber);
+        return new CursorPage<>(new ArrayList<>(rows),
+                hasNext ? String.valueOf(pageNumber + 1) : null,
+                pageNumber > 0 ? String.valueOf(pageNumber - 1) : null,
+                pageSize, "relevance");
     }
 
     public byte[] generateStudentReport() {
-        List<Student> students = getAllStudents();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PdfWriter writer = new PdfWriter(baos);
-             PdfDocument pdf = new PdfDocument(writer);
-             Document document = new Document(pdf)) {
+        writeStudentReport(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Streams the student report to {@code out}. Students are read through a
+     * Mongo cursor and rows are flushed from the iText large table in chunks,
+     * so neither the result set nor the layout tree is held in memory.
+     */
+    public void writeStudentReport(OutputStream out) {
+        reportMetrics.record(ReportType.STUDENTS, out, this::renderStudentReport);
+    }
+
+    private void renderStudentReport(OutputStream out) {
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(REPORT_BATCH_SIZE);
+        query.fields().include("firstName", "lastName", "email", "phone", "gradeLevel", "enrollmentDate");
+        PdfWriter writer = new PdfWriter(out);
+        // The caller owns the output stream (e.g. the servlet response)
+        writer.setCloseStream(false);
+        int rows = 0;
+        try (PdfDocument pdf = new PdfDocument(writer);
+             Document document = new Document(pdf);
+             Stream<Student> students = mongoTemplate.stream(query, Student.class)) {
 
             document.add(new Paragraph("Student Enrollment Report").setBold());
-            Table table = new Table(7);
+            Table table = new Table(7, true);
             table.addHeaderCell("ID");
             table.addHeaderCell("First Name");
             table.addHeaderCell("Last Name");
@@ -164,8 +524,11 @@ public class StudentService {
             table.addHeaderCell("Phone");
             table.addHeaderCell("Grade Level");
             table.addHeaderCell("Enrollment Date");
+            document.add(table);
 
-            for (Student student : students) {
+            Iterator<Student> iterator = students.iterator();
+            while (iterator.hasNext()) {
+                Student student = iterator.next();
                 table.addCell(student.getId() != null ? student.getId() : "");
                 table.addCell(student.getFirstName() != null ? student.getFirstName() : "");
                 table.addCell(student.getLastName() != null ? student.getLastName() : "");
@@ -173,13 +536,16 @@ public class StudentService {
                 table.addCell(student.getPhone() != null ? student.getPhone() : "");
                 table.addCell(student.getGradeLevel() != null ? student.getGradeLevel() : "");
                 table.addCell(student.getEnrollmentDate() != null ? student.getEnrollmentDate().toString() : "");
+                if (++rows % REPORT_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
             }
 
-            document.add(table);
+            table.complete();
+            logger.info("Generated student report with {} rows", rows);
         } catch (Exception e) {
             logger.error("Failed to generate student report: {}", e.getMessage(), e);
             throw new RuntimeException("Report generation failed");
         }
-        return baos.toByteArray();
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.sims.service;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stamps {@code updatedAt}, which {@code since} exports range over, on
+ * documents written before the field existed, so the next incremental export
+ * picks them up once. Only documents without the field are touched, so it is
+ * safe to run on each startup. Runs off the startup thread so an unreachable
+ * database does not hold up readiness.
+ */
+@Component
+public class UpdatedAtMigration {
+    private static final Logger logger = LoggerFactory.getLogger(UpdatedAtMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                for (Class<?> type : new Class<?>[]{Student.class, ClassSchedule.class}) {
+                    long stamped = mongoTemplate.updateMulti(Query.query(Criteria.where("updatedAt").exists(false)),
+                            new Update().currentDate("updatedAt"), type).getModifiedCount();
+                    if (stamped > 0) {
+                        logger.info("Stamped updatedAt on {} {} documents", stamped, type.getSimpleName());
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to stamp updatedAt on older documents: {}", e.getMessage());
+            }
+        });
+    }
+}
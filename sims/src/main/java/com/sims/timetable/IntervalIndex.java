@@ -0,0 +1,63 @@
+package com.sims.timetable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The bookings of one room, instructor or student, sorted by start minute. An
+ * overlap lookup is a binary search followed by a scan of the starts that fall
+ * within one booking length of the slot, which for a timetable without
+ * conflicts is a handful of entries. Not thread-safe; {@link TimetableIndex}
+ * guards it.
+ */
+final class IntervalIndex {
+    private final TreeMap<Integer, Map<String, TimeSlot>> byStart = new TreeMap<>();
+    // Only ever grows, so lookups may scan a little further back than needed after removals
+    private int longest;
+    private int size;
+
+    void add(String id, TimeSlot slot) {
+        if (byStart.computeIfAbsent(slot.start(), start -> new HashMap<>(2)).put(id, slot) == null) {
+            size++;
+        }
+        longest = Math.max(longest, slot.length());
+    }
+
+    void remove(String id, TimeSlot slot) {
+        Map<String, TimeSlot> starting = byStart.get(slot.start());
+        if (starting != null && starting.remove(id) != null) {
+            size--;
+            if (starting.isEmpty()) {
+                byStart.remove(slot.start());
+            }
+        }
+    }
+
+    /** Ids of the bookings that overlap {@code slot}, leaving out {@code ignoreId}. */
+    List<String> overlapping(TimeSlot slot, String ignoreId) {
+        List<String> ids = new ArrayList<>(1);
+        // Anything that starts more than one longest booking before the slot has ended by then
+        NavigableMap<Integer, Map<String, TimeSlot>> candidates =
+                byStart.subMap(slot.start() - longest, false, slot.end(), false);
+        for (Map<String, TimeSlot> starting : candidates.values()) {
+            starting.forEach((id, booked) -> {
+                if (booked.overlaps(slot) && !id.equals(ignoreId)) {
+                    ids.add(id);
+                }
+            });
+        }
+        return ids;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sims.timetable;
+
+import com.sims.model.ClassSchedule;
+import org.bson.Document;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+/**
+ * Keeps the typed time fields in step with {@code time} and {@code duration}
+ * whenever a whole schedule is saved or inserted, and fills them in on
+ * documents read before they were stored. Partial {@code $set} updates must
+ * refresh them explicitly.
+ */
+@Configuration
+public class ScheduleTimeCallbacks {
+
+    @Bean
+    public BeforeConvertCallback<ClassSchedule> classScheduleTimes() {
+        return new BeforeConvertCallback<ClassSchedule>() {
+            @Override
+            public ClassSchedule onBeforeConvert(ClassSchedule schedule, String collection) {
+                ScheduleTimes.apply(schedule);
+                return schedule;
+            }
+        };
+    }
+
+    @Bean
+    public AfterConvertCallback<ClassSchedule> legacyClassScheduleTimes() {
+        return new AfterConvertCallback<ClassSchedule>() {
+            @Override
+            public ClassSchedule onAfterConvert(ClassSchedule schedule, Document document, String collection) {
+                ScheduleTimes.backfill(schedule);
+                return schedule;
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.sims.timetable;
+
+import com.sims.model.ClassSchedule;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the typed fields of a schedule from the text the user entered:
+ * {@code startMinute} and {@code endMinute} from {@code time}, and
+ * {@code durationMinutes} from {@code duration}. A duration that cannot be
+ * read falls back to the length of the time slot.
+ */
+public final class ScheduleTimes {
+    // "90", "90 min", "1.5 hours", "2h", "1h 30m", "1 hour 15 minutes"
+    private static final Pattern DURATION = Pattern.compile(
+            "^\\s*(?:(\\d+(?:\\.\\d+)?)\\s*h(?:ours?|rs?)?)?\\s*(?:(\\d+)\\s*(?:m(?:in(?:ute)?s?)?)?)?\\s*$");
+
+    private ScheduleTimes() {
+    }
+
+    public static void apply(ClassSchedule schedule) {
+        TimeSlot slot = slotOf(schedule.getTime());
+        schedule.setStartMinute(slot == null ? null : slot.start());
+        schedule.setEndMinute(slot == null ? null : slot.end());
+        Integer duration = durationMinutes(schedule.getDuration());
+        schedule.setDurationMinutes(duration != null ? duration : slot == null ? null : slot.length());
+    }
+
+    /** Fills the typed fields only where they are missing, e.g. on documents read before they existed. */
+    public static void backfill(ClassSchedule schedule) {
+        if (schedule.getTime() != null && (schedule.getStartMinute() == null || schedule.getDurationMinutes() == null)) {
+            apply(schedule);
+        }
+    }
+
+    /** Parses a {@code HH:MM} clock time into minutes since midnight. */
+    public static int minuteOf(String clock) {
+        if (clock == null || !clock.matches("^([0-1][0-9]|2[0-3]):[0-5][0-9]$")) {
+            throw new IllegalArgumentException("Times must be in 'HH:MM' format (e.g., 09:00)");
+        }
+        return Integer.parseInt(clock.substring(0, 2)) * 60 + Integer.parseInt(clock.substring(3, 5));
+    }
+
+    /** Reads a duration such as {@code 90 min} or {@code 1h 30m}, or returns null when it cannot. */
+    public static Integer durationMinutes(String duration) {
+        if (duration == null || duration.isBlank()) {
+            return null;
+        }
+        Matcher matcher = DURATION.matcher(duration.toLowerCase(Locale.ROOT));
+        if (!matcher.matches() || (matcher.group(1) == null && matcher.group(2) == null)) {
+            return null;
+        }
+        double hours = matcher.group(1) == null ? 0 : Double.parseDouble(matcher.group(1));
+        int minutes = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+        long total = Math.round(hours * 60) + minutes;
+        return total > 0 && total <= 24 * 60 ? (int) total : null;
+    }
+
+    private static TimeSlot slotOf(String time) {
+        try {
+            return time == null ? null : TimeSlot.parse(time);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
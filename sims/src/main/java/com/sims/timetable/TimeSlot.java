@@ -0,0 +1,43 @@
+package com.sims.timetable;
+
+/**
+ * A daily time slot as minutes since midnight, half-open: a class ending at
+ * 10:30 does not overlap one starting at 10:30.
+ */
+public record TimeSlot(int start, int end) {
+
+    public TimeSlot {
+        if (start < 0 || end > 24 * 60 || end <= start) {
+            throw new IllegalArgumentException("Time must end after it starts");
+        }
+    }
+
+    /** Parses the {@code HH:MM-HH:MM} format used by {@code ClassSchedule.time}. */
+    public static TimeSlot parse(String time) {
+        if (time == null || !time.matches("^([0-1][0-9]|2[0-3]):[0-5][0-9]-([0-1][0-9]|2[0-3]):[0-5][0-9]$")) {
+            throw new IllegalArgumentException("Time must be in 'HH:MM-HH:MM' format (e.g., 09:00-10:30)");
+        }
+        return new TimeSlot(minutes(time.substring(0, 5)), minutes(time.substring(6, 11)));
+    }
+
+    public boolean overlaps(TimeSlot other) {
+        return start < other.end && other.start < end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public String toString() {
+        return format(start) + "-" + format(end);
+    }
+
+    private static int minutes(String hhmm) {
+        return Integer.parseInt(hhmm.substring(0, 2)) * 60 + Integer.parseInt(hhmm.substring(3, 5));
+    }
+
+    private static String format(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,440 @@
+package com.sims.timetable;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory timetable of every schedule, kept as one sorted interval index
+ * per room, per instructor and per student, so a clash check costs a few
+ * binary searches instead of a scan of all schedules. A check and the write
+ * that follows it happen under one lock, so two requests cannot both take the
+ * same slot, but the locks are as narrow as the data they guard: enrollment
+ * changes share a read lock and only wait for each other when they concern
+ * the same student, while booking, moving or dropping a schedule, which can
+ * touch every student on its roster, takes the write lock. The index is
+ * loaded once, before its first use and without holding either lock, and
+ * then updated by the services on every schedule and enrollment change.
+ * <p>
+ * Changes made by another instance never reach this one, so the checks only
+ * hold with a single application node writing to the database; running more
+ * needs the clash checks moved into the database first.
+ */
+@Component
+public class TimetableIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TimetableIndex.class);
+    private static final int WARMUP_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED = 5;
+    private static final int STUDENT_LOCKS = 64;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Schedules, rooms and instructors change only under the write lock
+    private final Map<String, Booking> bookings = new HashMap<>();
+    private final Map<String, IntervalIndex> rooms = new HashMap<>();
+    private final Map<String, String> roomNames = new HashMap<>();
+    private final Map<String, IntervalIndex> instructors = new HashMap<>();
+    // Written by enrollment changes of different students at once; each entry under its student's lock
+    private final Map<String, IntervalIndex> students = new ConcurrentHashMap<>();
+    // Both directions of the enrollment link, so moving or dropping either side finds the other
+    private final Map<String, Set<String>> rosters = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> enrolled = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object[] studentLocks = new Object[STUDENT_LOCKS];
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    {
+        for (int i = 0; i < STUDENT_LOCKS; i++) {
+            studentLocks[i] = new Object();
+        }
+    }
+
+    public record Booking(String scheduleId, String className, String room, String instructor, TimeSlot slot) {
+        static Booking of(ClassSchedule schedule) {
+            if (schedule.getRoom() == null || schedule.getInstructor() == null) {
+                throw new IllegalArgumentException("Room and instructor are required");
+            }
+            return new Booking(schedule.getId(), schedule.getClassName(), schedule.getRoom(),
+                    schedule.getInstructor(), TimeSlot.parse(schedule.getTime()));
+        }
+
+        @Override
+        public String toString() {
+            return className + " (" + slot + ")";
+        }
+    }
+
+    /** Starts loading at startup, so the first request rarely has to wait for it. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                ensureLoaded();
+            } catch (Exception e) {
+                logger.warn("Failed to load timetable index: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Books the schedule's room and instructor for its time, replacing any
+     * earlier booking of the same schedule. When the time changes, every
+     * enrolled student must be free at the new time too. Throws
+     * {@link IllegalArgumentException} describing the clashes instead of
+     * booking; returns the booking it replaced, for {@link #restore}.
+     */
+    public Booking claim(ClassSchedule schedule) {
+        Booking booking = Booking.of(schedule);
+        return writing(() -> book(booking));
+    }
+
+    private Booking book(Booking booking) {
+        Booking previous = bookings.get(booking.scheduleId());
+        List<String> clashes = new ArrayList<>();
+        for (String other : overlapping(rooms, key(booking.room()), booking)) {
+            clashes.add("Room " + booking.room() + " is already booked by " + bookings.get(other));
+        }
+        for (String other : overlapping(instructors, key(booking.instructor()), booking)) {
+            clashes.add(booking.instructor() + " already teaches " + bookings.get(other));
+        }
+        if (previous != null && !previous.slot().equals(booking.slot())) {
+            for (String studentId : rosters.getOrDefault(booking.scheduleId(), Set.of())) {
+                for (String other : overlapping(students, studentId, booking)) {
+                    clashes.add("Student " + studentId + " is enrolled in " + bookings.get(other));
+                }
+            }
+        }
+        if (!clashes.isEmpty()) {
+            throw new IllegalArgumentException(describe(clashes));
+        }
+        put(booking);
+        return previous;
+    }
+
+    /** Undoes a {@link #claim} whose write failed, putting back the booking it returned. */
+    public void restore(String scheduleId, Booking previous) {
+        writing(() -> {
+            if (previous == null) {
+                unbook(scheduleId);
+            } else {
+                put(previous);
+            }
+            return null;
+        });
+    }
+
+    /** Adds a stored schedule without checking it. Returns false when its time cannot be read. */
+    public boolean put(ClassSchedule schedule) {
+        return writing(() -> add(schedule));
+    }
+
+    /** Drops the schedules along with their students' enrollments in them. */
+    public void remove(Collection<String> scheduleIds) {
+        writing(() -> {
+            scheduleIds.forEach(this::drop);
+            return null;
+        });
+    }
+
+    private void drop(String scheduleId) {
+        Booking booking = unbook(scheduleId);
+        Set<String> roster = rosters.remove(scheduleId);
+        if (roster == null) {
+            return;
+        }
+        for (String studentId : roster) {
+            unlink(enrolled, studentId, scheduleId);
+            if (booking != null) {
+                removeFrom(students, studentId, scheduleId, booking.slot());
+            }
+        }
+    }
+
+    /**
+     * Records the student in the schedule's class time if it is free in their
+     * timetable, and throws {@link IllegalArgumentException} naming the class
+     * it clashes with otherwise. Returns false when the student was already
+     * recorded, so the caller knows not to {@link #removeEnrollment} on failure.
+     */
+    public boolean claimEnrollment(String studentId, String scheduleId) {
+        return reading(studentId, () -> {
+            if (enrolled.getOrDefault(studentId, Set.of()).contains(scheduleId)) {
+                return false;
+            }
+            Booking booking = bookings.get(scheduleId);
+            if (booking != null) {
+                List<String> clashes = overlapping(students, studentId, booking);
+                if (!clashes.isEmpty()) {
+                    throw new IllegalArgumentException("Student is already enrolled in " + bookings.get(clashes.get(0))
+                            + " at the same time");
+                }
+            }
+            addEnrollment(studentId, scheduleId);
+            return true;
+        });
+    }
+
+    public void removeEnrollment(String studentId, String scheduleId) {
+        reading(studentId, () -> {
+            unlink(rosters, scheduleId, studentId);
+            unlink(enrolled, studentId, scheduleId);
+            Booking booking = bookings.get(scheduleId);
+            if (booking != null) {
+                removeFrom(students, studentId, scheduleId, booking.slot());
+            }
+            return null;
+        });
+    }
+
+    /** Drops every enrollment of the given students, e.g. when they are deleted. */
+    public void removeStudents(Collection<String> studentIds) {
+        for (String studentId : studentIds) {
+            reading(studentId, () -> {
+                students.remove(studentId);
+                Set<String> scheduleIds = enrolled.remove(studentId);
+                if (scheduleIds != null) {
+                    for (String scheduleId : scheduleIds) {
+                        unlink(rosters, scheduleId, studentId);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /** Rooms used by any schedule that are not booked at any point of {@code slot}, sorted by name. */
+    public List<String> freeRooms(TimeSlot slot) {
+        return reading(null, () -> {
+            List<String> free = new ArrayList<>();
+            rooms.forEach((key, index) -> {
+                if (index.overlapping(slot, null).isEmpty()) {
+                    free.add(roomNames.get(key));
+                }
+            });
+            free.sort(String.CASE_INSENSITIVE_ORDER);
+            return free;
+        });
+    }
+
+    public boolean isRoomFree(String room, TimeSlot slot) {
+        return reading(null, () -> {
+            IntervalIndex index = rooms.get(key(room));
+            return index == null || index.overlapping(slot, null).isEmpty();
+        });
+    }
+
+    public boolean isInstructorFree(String instructor, TimeSlot slot) {
+        return reading(null, () -> {
+            IntervalIndex index = instructors.get(key(instructor));
+            return index == null || index.overlapping(slot, null).isEmpty();
+        });
+    }
+
+    /** Runs a change to bookings, which may touch any student, with every other change shut out. */
+    private <T> T writing(Supplier<T> action) {
+        ensureLoaded();
+        return locked(lock.writeLock(), action);
+    }
+
+    /**
+     * Runs a read of bookings, or with a {@code studentId} a change to that
+     * student's enrollments, alongside others: bookings cannot change under
+     * the read lock, and a student's entries only change under their lock.
+     */
+    private <T> T reading(String studentId, Supplier<T> action) {
+        ensureLoaded();
+        if (studentId == null) {
+            return locked(lock.readLock(), action);
+        }
+        return locked(lock.readLock(), () -> {
+            synchronized (studentLocks[Math.floorMod(studentId.hashCode(), STUDENT_LOCKS)]) {
+                return action.get();
+            }
+        });
+    }
+
+    private static <T> T locked(Lock held, Supplier<T> action) {
+        held.lock();
+        try {
+            return action.get();
+        } finally {
+            held.unlock();
+        }
+    }
+
+    /**
+     * Loads every schedule and enrollment the first time the index is used.
+     * Only the loader holds the load lock, not the index locks: nothing reads
+     * or writes the maps before {@code loaded} is set, because every caller
+     * comes through here first and waits for the load, so no check is
+     * answered from a partly loaded index and no change made meanwhile is
+     * overwritten by it. A load that fails is started again by the next
+     * caller.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (!loaded) {
+                load();
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        clear();
+        int skipped = 0;
+        try {
+            Query schedules = new Query().cursorBatchSize(WARMUP_BATCH_SIZE);
+            schedules.fields().include("className", "instructor", "time", "room");
+            try (Stream<ClassSchedule> stream = mongoTemplate.stream(schedules, ClassSchedule.class)) {
+                for (ClassSchedule schedule : (Iterable<ClassSchedule>) stream::iterator) {
+                    if (!add(schedule)) {
+                        skipped++;
+                    }
+                }
+            }
+            Query enrollments = new Query().cursorBatchSize(WARMUP_BATCH_SIZE);
+            enrollments.fields().include("studentId", "scheduleId");
+            try (Stream<Enrollment> stream = mongoTemplate.stream(enrollments, Enrollment.class)) {
+                stream.forEach(enrollment -> addEnrollment(enrollment.getStudentId(), enrollment.getScheduleId()));
+            }
+        } catch (RuntimeException e) {
+            clear();
+            throw e;
+        }
+        loaded = true;
+        logger.info("Timetable index loaded {} schedules ({} without a readable time) and {} students in {} ms",
+                bookings.size(), skipped, enrolled.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void clear() {
+        bookings.clear();
+        rooms.clear();
+        roomNames.clear();
+        instructors.clear();
+        students.clear();
+        rosters.clear();
+        enrolled.clear();
+    }
+
+    private boolean add(ClassSchedule schedule) {
+        try {
+            put(Booking.of(schedule));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void addEnrollment(String studentId, String scheduleId) {
+        if (!link(rosters, scheduleId, studentId)) {
+            return;
+        }
+        link(enrolled, studentId, scheduleId);
+        Booking booking = bookings.get(scheduleId);
+        if (booking != null) {
+            students.computeIfAbsent(studentId, key -> new IntervalIndex()).add(scheduleId, booking.slot());
+        }
+    }
+
+    private void put(Booking booking) {
+        Booking previous = unbook(booking.scheduleId());
+        bookings.put(booking.scheduleId(), booking);
+        String room = key(booking.room());
+        rooms.computeIfAbsent(room, key -> new IntervalIndex()).add(booking.scheduleId(), booking.slot());
+        roomNames.putIfAbsent(room, booking.room().trim());
+        instructors.computeIfAbsent(key(booking.instructor()), key -> new IntervalIndex())
+                .add(booking.scheduleId(), booking.slot());
+        for (String studentId : rosters.getOrDefault(booking.scheduleId(), Set.of())) {
+            if (previous != null) {
+                removeFrom(students, studentId, booking.scheduleId(), previous.slot());
+            }
+            students.computeIfAbsent(studentId, key -> new IntervalIndex()).add(booking.scheduleId(), booking.slot());
+        }
+    }
+
+    /** Frees the schedule's room and instructor; its students' entries are left to the caller. */
+    private Booking unbook(String scheduleId) {
+        Booking booking = bookings.remove(scheduleId);
+        if (booking != null) {
+            if (removeFrom(rooms, key(booking.room()), scheduleId, booking.slot())) {
+                roomNames.remove(key(booking.room()));
+            }
+            removeFrom(instructors, key(booking.instructor()), scheduleId, booking.slot());
+        }
+        return booking;
+    }
+
+    private List<String> overlapping(Map<String, IntervalIndex> indexes, String key, Booking booking) {
+        IntervalIndex index = indexes.get(key);
+        return index == null ? List.of() : index.overlapping(booking.slot(), booking.scheduleId());
+    }
+
+    /** Returns true when the key has no bookings left and was dropped. */
+    private static boolean removeFrom(Map<String, IntervalIndex> indexes, String key, String id, TimeSlot slot) {
+        IntervalIndex index = indexes.get(key);
+        if (index == null) {
+            return false;
+        }
+        index.remove(id, slot);
+        if (index.isEmpty()) {
+            indexes.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    // Atomic per key, since students enrolling in one schedule share its roster entry
+    private static boolean link(Map<String, Set<String>> links, String from, String to) {
+        boolean[] added = new boolean[1];
+        links.compute(from, (key, targets) -> {
+            Set<String> linked = targets == null ? ConcurrentHashMap.newKeySet() : targets;
+            added[0] = linked.add(to);
+            return linked;
+        });
+        return added[0];
+    }
+
+    private static void unlink(Map<String, Set<String>> links, String from, String to) {
+        links.computeIfPresent(from, (key, targets) -> targets.remove(to) && targets.isEmpty() ? null : targets);
+    }
+
+    // Rooms and instructors are typed by hand, so "a-101 " and "A-101" are the same room
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(List<String> clashes) {
+        if (clashes.size() <= MAX_REPORTED) {
+            return String.join("; ", clashes);
+        }
+        return String.join("; ", clashes.subList(0, MAX_REPORTED)) + "; and " + (clashes.size() - MAX_REPORTED) + " more";
+    }
+}
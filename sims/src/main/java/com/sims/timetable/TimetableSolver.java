@@ -0,0 +1,311 @@
+package com.sims.timetable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+
+/**
+ * Places classes into (room, slot) pairs so that no room and no instructor is
+ * booked twice at overlapping times, neither among the new classes nor
+ * against what is already booked. A class only goes into slots at least as
+ * long as it is. Each attempt places the most constrained
+ * classes first, each into the smallest room that fits, then repairs the
+ * classes left over by moving one blocking class elsewhere. Attempts are
+ * randomized and run on several threads until every class is placed or the
+ * time budget is spent; the attempt that placed the most classes wins.
+ */
+public final class TimetableSolver {
+    private final int classCount;
+    private final int roomCount;
+    private final int slotCount;
+    private final int[] instructorOf;
+    private final int instructorCount;
+    // Slots overlapping each slot, itself included
+    private final int[][] overlapsOf;
+    // room * slotCount + slot positions each class may take, before other new classes are considered
+    private final int[][] options;
+    private final int[] waste;
+
+    /** {@code durationMinutes[c]} is 0 for a class that takes whatever slot it gets. */
+    public record Problem(List<String> instructors, int[] seatsNeeded, int[] durationMinutes, List<String> rooms,
+                          int[] roomCapacities, List<TimeSlot> slots) {
+    }
+
+    /** {@code rooms[c]} and {@code slots[c]} are -1 for classes that were not placed. */
+    public record Result(int[] rooms, int[] slots, int placed, int attempts) {
+    }
+
+    /**
+     * @param roomFree       whether a room is free for a whole slot, given what is already booked
+     * @param instructorFree the same for an instructor
+     */
+    public TimetableSolver(Problem problem, BiPredicate<String, TimeSlot> roomFree,
+                           BiPredicate<String, TimeSlot> instructorFree) {
+        classCount = problem.instructors().size();
+        roomCount = problem.rooms().size();
+        slotCount = problem.slots().size();
+
+        Map<String, Integer> instructorIds = new HashMap<>();
+        List<String> instructorNames = new ArrayList<>();
+        instructorOf = new int[classCount];
+        for (int c = 0; c < classCount; c++) {
+            String name = problem.instructors().get(c);
+            instructorOf[c] = instructorIds.computeIfAbsent(name.trim().toLowerCase(Locale.ROOT), key -> {
+                instructorNames.add(name);
+                return instructorNames.size() - 1;
+            });
+        }
+        instructorCount = instructorNames.size();
+
+        overlapsOf = new int[slotCount][];
+        for (int s = 0; s < slotCount; s++) {
+            List<Integer> overlapping = new ArrayList<>();
+            for (int other = 0; other < slotCount; other++) {
+                if (problem.slots().get(s).overlaps(problem.slots().get(other))) {
+                    overlapping.add(other);
+                }
+            }
+            overlapsOf[s] = overlapping.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        boolean[][] roomOpen = new boolean[roomCount][slotCount];
+        for (int r = 0; r < roomCount; r++) {
+            for (int s = 0; s < slotCount; s++) {
+                roomOpen[r][s] = roomFree.test(problem.rooms().get(r), problem.slots().get(s));
+            }
+        }
+        boolean[][] instructorOpen = new boolean[instructorCount][slotCount];
+        for (int i = 0; i < instructorCount; i++) {
+            for (int s = 0; s < slotCount; s++) {
+                instructorOpen[i][s] = instructorFree.test(instructorNames.get(i), problem.slots().get(s));
+            }
+        }
+
+        waste = new int[classCount * roomCount];
+        options = new int[classCount][];
+        for (int c = 0; c < classCount; c++) {
+            int needed = problem.seatsNeeded()[c];
+            int duration = problem.durationMinutes()[c];
+            List<Integer> positions = new ArrayList<>();
+            for (int r = 0; r < roomCount; r++) {
+                int capacity = problem.roomCapacities()[r];
+                waste[c * roomCount + r] = capacity - needed;
+                if (capacity < needed) {
+                    continue;
+                }
+                for (int s = 0; s < slotCount; s++) {
+                    if (roomOpen[r][s] && instructorOpen[instructorOf[c]][s] && problem.slots().get(s).length() >= duration) {
+                        positions.add(r * slotCount + s);
+                    }
+                }
+            }
+            options[c] = positions.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public Result solve(Duration budget, int threads, long seed) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int workers = Math.max(1, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Result>> searches = new ArrayList<>(workers);
+            for (int t = 0; t < workers; t++) {
+                SplittableRandom random = new SplittableRandom(seed + t);
+                searches.add(pool.submit(() -> search(random, deadline)));
+            }
+            Result best = null;
+            int attempts = 0;
+            for (Future<Result> search : searches) {
+                Result result = search.get();
+                attempts += result.attempts();
+                if (best == null || result.placed() > best.placed()) {
+                    best = result;
+                }
+            }
+            return new Result(best.rooms(), best.slots(), best.placed(), attempts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Timetable solver was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Timetable solver failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Result search(SplittableRandom random, long deadline) {
+        Result best = null;
+        int attempts = 0;
+        do {
+            Attempt attempt = new Attempt();
+            attempt.construct(random);
+            attempt.repair(random, deadline);
+            attempts++;
+            if (best == null || attempt.placed > best.placed()) {
+                best = new Result(attempt.roomOf.clone(), attempt.slotOf.clone(), attempt.placed, 0);
+            }
+        } while (best.placed() < classCount && System.nanoTime() < deadline);
+        return new Result(best.rooms(), best.slots(), best.placed(), attempts);
+    }
+
+    /** One assignment under construction. Not shared between threads. */
+    private final class Attempt {
+        final int[] roomOf = new int[classCount];
+        final int[] slotOf = new int[classCount];
+        // Class holding each room or instructor at each slot, or -1
+        final int[][] roomAt = new int[roomCount][slotCount];
+        final int[][] teachingAt = new int[instructorCount][slotCount];
+        int placed;
+
+        Attempt() {
+            Arrays.fill(roomOf, -1);
+            Arrays.fill(slotOf, -1);
+            for (int[] row : roomAt) {
+                Arrays.fill(row, -1);
+            }
+            for (int[] row : teachingAt) {
+                Arrays.fill(row, -1);
+            }
+        }
+
+        /** Fewest options first, ties broken at random so attempts differ. */
+        void construct(SplittableRandom random) {
+            long[] order = new long[classCount];
+            for (int c = 0; c < classCount; c++) {
+                order[c] = ((long) options[c].length << 40) | ((long) random.nextInt(1 << 20) << 20) | c;
+            }
+            Arrays.sort(order);
+            for (long key : order) {
+                placeBest((int) (key & ((1 << 20) - 1)), random);
+            }
+        }
+
+        /**
+         * Repeatedly tries each unplaced class in every position, moving a
+         * single blocking class to another free position when that clears the
+         * way. Stops when a full pass places nothing or time runs out.
+         */
+        void repair(SplittableRandom random, long deadline) {
+            boolean progress = true;
+            while (progress && placed < classCount && System.nanoTime() < deadline) {
+                progress = false;
+                for (int c = 0; c < classCount && System.nanoTime() < deadline; c++) {
+                    if (roomOf[c] < 0 && (placeBest(c, random) || ejectOne(c, random, deadline))) {
+                        progress = true;
+                    }
+                }
+            }
+        }
+
+        /** Places the class where it wastes the fewest seats, starting the scan at a random position. */
+        boolean placeBest(int c, SplittableRandom random) {
+            int[] candidates = options[c];
+            if (candidates.length == 0) {
+                return false;
+            }
+            int start = random.nextInt(candidates.length);
+            int best = -1;
+            for (int k = 0; k < candidates.length; k++) {
+                int position = candidates[(start + k) % candidates.length];
+                if (fits(c, position / slotCount, position % slotCount)
+                        && (best < 0 || wasted(c, position) < wasted(c, best))) {
+                    best = position;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            place(c, best / slotCount, best % slotCount);
+            return true;
+        }
+
+        boolean ejectOne(int c, SplittableRandom random, long deadline) {
+            int[] candidates = options[c];
+            if (candidates.length == 0) {
+                return false;
+            }
+            int start = random.nextInt(candidates.length);
+            for (int k = 0; k < candidates.length && System.nanoTime() < deadline; k++) {
+                int position = candidates[(start + k) % candidates.length];
+                int room = position / slotCount;
+                int slot = position % slotCount;
+                int blocker = soleBlocker(c, room, slot);
+                if (blocker < 0) {
+                    continue;
+                }
+                int blockerRoom = roomOf[blocker];
+                int blockerSlot = slotOf[blocker];
+                unplace(blocker);
+                place(c, room, slot);
+                if (placeBest(blocker, random)) {
+                    return true;
+                }
+                unplace(c);
+                place(blocker, blockerRoom, blockerSlot);
+            }
+            return false;
+        }
+
+        /** The one placed class keeping {@code c} out of the position, or -1 when there are none or several. */
+        int soleBlocker(int c, int room, int slot) {
+            int blocker = -1;
+            for (int other : overlapsOf[slot]) {
+                int inRoom = roomAt[room][other];
+                if (inRoom >= 0 && inRoom != blocker) {
+                    if (blocker >= 0) {
+                        return -1;
+                    }
+                    blocker = inRoom;
+                }
+                int teaching = teachingAt[instructorOf[c]][other];
+                if (teaching >= 0 && teaching != blocker) {
+                    if (blocker >= 0) {
+                        return -1;
+                    }
+                    blocker = teaching;
+                }
+            }
+            return blocker;
+        }
+
+        boolean fits(int c, int room, int slot) {
+            int instructor = instructorOf[c];
+            for (int other : overlapsOf[slot]) {
+                if (roomAt[room][other] >= 0 || teachingAt[instructor][other] >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void place(int c, int room, int slot) {
+            roomOf[c] = room;
+            slotOf[c] = slot;
+            roomAt[room][slot] = c;
+            teachingAt[instructorOf[c]][slot] = c;
+            placed++;
+        }
+
+        void unplace(int c) {
+            roomAt[roomOf[c]][slotOf[c]] = -1;
+            teachingAt[instructorOf[c]][slotOf[c]] = -1;
+            roomOf[c] = -1;
+            slotOf[c] = -1;
+            placed--;
+        }
+
+        int wasted(int c, int position) {
+            return waste[c * roomCount + position / slotCount];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sims.cache;
+
+import com.sims.model.ClassSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityCacheTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EntityCache cache = new EntityCache(true, 100, Duration.ofMinutes(5), registry);
+
+    @Test
+    void callersCannotChangeTheCachedEntity() {
+        AtomicInteger loads = new AtomicInteger();
+        ClassSchedule first = cache.schedule("1", id -> {
+            loads.incrementAndGet();
+            return ClassSchedule.builder().id(id).className("Physics").waitlist(new ArrayList<>(List.of("a"))).build();
+        });
+        first.setClassName("Changed");
+        first.getWaitlist().add("b");
+
+        ClassSchedule second = cache.schedule("1", id -> {
+            throw new AssertionError("Should have been cached");
+        });
+        assertEquals(1, loads.get());
+        assertEquals("Physics", second.getClassName());
+        assertEquals(List.of("a"), second.getWaitlist());
+    }
+
+    @Test
+    void hitsAndMissesArePublished() {
+        cache.schedule("1", id -> ClassSchedule.builder().id(id).build());
+        cache.schedule("1", id -> ClassSchedule.builder().id(id).build());
+
+        assertEquals(1, registry.get("cache.gets").tags("cache", "schedules", "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "schedules", "result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,128 @@
+package com.sims.controller;
+
+import com.sims.model.ReportType;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.ReportJobService;
+import com.sims.service.ReportRenderPool;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Live reports against a render pool of one thread and a queue of one, with
+ * platform threads as on Java 17.
+ */
+class ReportBackpressureTests {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService waiting = Executors.newFixedThreadPool(2);
+    private ReportRenderPool pool;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ReportRenderPool(false, 1, 1);
+        ReportJobService reportJobService = mock(ReportJobService.class);
+        when(reportJobService.findCachedReport(any(ReportType.class))).thenReturn(Optional.empty());
+
+        StudentService studentService = mock(StudentService.class);
+        doAnswer(invocation -> write(invocation.getArgument(0), "students"))
+                .when(studentService).writeStudentReport(any(OutputStream.class));
+        StudentController students = new StudentController();
+        ReflectionTestUtils.setField(students, "service", studentService);
+        ReflectionTestUtils.setField(students, "reportJobService", reportJobService);
+        ReflectionTestUtils.setField(students, "reportRenderPool", pool);
+
+        ClassScheduleService scheduleService = mock(ClassScheduleService.class);
+        doAnswer(invocation -> write(invocation.getArgument(0), "schedules"))
+                .when(scheduleService).writeScheduleReport(any(OutputStream.class));
+        ClassScheduleController schedules = new ClassScheduleController();
+        ReflectionTestUtils.setField(schedules, "service", scheduleService);
+        ReflectionTestUtils.setField(schedules, "reportJobService", reportJobService);
+        ReflectionTestUtils.setField(schedules, "reportRenderPool", pool);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(students, schedules).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        waiting.shutdownNow();
+        ReflectionTestUtils.invokeMethod(pool, "shutdown");
+    }
+
+    @Test
+    void reportIsRenderedOnThePool() throws Exception {
+        release.countDown();
+
+        MvcResult started = mockMvc.perform(get("/students/report"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("students"));
+    }
+
+    @Test
+    void reportsBeyondTheQueueAreRefusedWith503() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        waiting.submit(() -> pool.render(OutputStream.nullOutputStream(), out -> block(rendering)));
+        assertTrue(rendering.await(10, TimeUnit.SECONDS));
+        waiting.submit(() -> pool.render(OutputStream.nullOutputStream(), out -> block(null)));
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(pool, "executor");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getQueue().isEmpty() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, executor.getQueue().remainingCapacity(), "render queue is not full");
+
+        for (String report : new String[]{"/students/report", "/schedules/report"}) {
+            MvcResult started = mockMvc.perform(get(report))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().string(""));
+        }
+    }
+
+    private Object write(OutputStream out, String text) throws Exception {
+        out.write(text.getBytes());
+        return null;
+    }
+
+    private void block(CountDownLatch started) {
+        if (started != null) {
+            started.countDown();
+        }
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
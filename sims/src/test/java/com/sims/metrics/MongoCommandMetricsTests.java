@@ -0,0 +1,80 @@
+package com.sims.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MongoCommandMetricsTests {
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Test
+    void shapeHidesLiteralsAndCollapsesRepeatedElements() {
+        BsonDocument find = BsonDocument.parse("{find: 'student', filter: {searchTokens: {$all: ['ma', 'smi']},"
+                + " _id: {$nin: ['a', 'b', 'c']}}, sort: {_id: 1}, limit: 26, lsid: {id: 1}}");
+        assertEquals("find student {filter: {searchTokens: {$all: [?]}, _id: {$nin: [?]}}, sort: {_id: ?}, limit: ?}",
+                MongoCommandMetrics.shape("find", find));
+
+        BsonDocument update = BsonDocument.parse("{update: 'classSchedule', updates: ["
+                + "{q: {_id: 'x'}, u: {$inc: {enrolledCount: 1}}}, {q: {_id: 'y'}, u: {$inc: {enrolledCount: 1}}}]}");
+        assertEquals("update classSchedule {updates: [{q: {_id: ?}, u: {$inc: {enrolledCount: ?}}}]}",
+                MongoCommandMetrics.shape("update", update));
+    }
+
+    @Test
+    void recordsLatencyDocumentsAndBytesByCaller() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoCommandMetrics metrics = new MongoCommandMetrics(registry, Duration.ofMillis(100));
+        BsonDocument find = BsonDocument.parse("{find: 'student', filter: {gradeLevel: 'Grade 9'}}");
+        RawBsonDocument reply = new RawBsonDocument(new BsonDocument("cursor", new BsonDocument("firstBatch",
+                new BsonArray(List.of(new BsonDocument("_id", new BsonString("a")),
+                        new BsonDocument("_id", new BsonString("b"))))).append("id", new BsonInt32(0))),
+                new BsonDocumentCodec());
+
+        metrics.commandStarted(new CommandStartedEvent(null, 1, 7, CONNECTION, "sims", "find", find));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 7, CONNECTION, "sims", "find", reply,
+                TimeUnit.MILLISECONDS.toNanos(250)));
+
+        String caller = "MongoCommandMetricsTests.recordsLatencyDocumentsAndBytesByCaller";
+        assertEquals(1, registry.get("sims.mongo.commands").tag("caller", caller).tag("collection", "student")
+                .tag("status", "success").timer().count());
+        assertEquals(2, registry.get("sims.mongo.documents").tag("caller", caller).summary().totalAmount());
+        assertEquals(reply.getByteBuffer().remaining(),
+                (long) registry.get("sims.mongo.reply.bytes").tag("caller", caller).summary().totalAmount());
+        assertEquals(1, registry.get("sims.mongo.commands.slow").tag("caller", caller).counter().count());
+    }
+
+    @Test
+    void fastCommandsAreNotLogged() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoCommandMetrics metrics = new MongoCommandMetrics(registry, Duration.ofMillis(100));
+        BsonDocument count = BsonDocument.parse("{count: 'enrollment', query: {scheduleId: 'x'}}");
+
+        metrics.commandStarted(new CommandStartedEvent(null, 1, 8, CONNECTION, "sims", "count", count));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 8, CONNECTION, "sims", "count",
+                BsonDocument.parse("{n: 12, ok: 1}"), TimeUnit.MILLISECONDS.toNanos(3)));
+
+        assertEquals(12, registry.get("sims.mongo.documents").tag("command", "count").summary().totalAmount());
+        assertNotNull(registry.find("sims.mongo.commands").tag("command", "count").timer());
+        assertNull(registry.find("sims.mongo.commands.slow").counter());
+    }
+}
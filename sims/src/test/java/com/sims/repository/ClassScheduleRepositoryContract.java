@@ -0,0 +1,108 @@
+package com.sims.repository;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.ScheduleRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * What every {@link ClassScheduleRepository} implementation must do, run once
+ * per storage engine by a subclass that supplies an empty repository.
+ */
+public abstract class ClassScheduleRepositoryContract {
+
+    protected abstract ClassScheduleRepository repository();
+
+    @BeforeEach
+    void clear() {
+        repository().deleteAll();
+    }
+
+    @Test
+    void savedSchedulesAreFoundWithTheirTypedTimes() {
+        ClassSchedule saved = repository().save(schedule("Algebra", "Dr. Smith", "09:00-10:30"));
+
+        ClassSchedule found = repository().findById(saved.getId()).orElseThrow();
+
+        assertEquals("Algebra", found.getClassName());
+        assertEquals(540, found.getStartMinute());
+        assertEquals(630, found.getEndMinute());
+        assertEquals(90, found.getDurationMinutes());
+        assertEquals(List.of("s1", "s2"), found.getWaitlist());
+        assertNotNull(found.getUpdatedAt());
+        assertEquals(1, repository().findAll().size());
+    }
+
+    @Test
+    void searchMatchesClassAndInstructorAndCountsTheWaitlist() {
+        ClassSchedule algebra = repository().save(schedule("Algebra", "Dr. Smith", "09:00-10:30"));
+        ClassSchedule algorithms = repository().save(schedule("Algorithms", "Dr. Jones", "11:00-12:00"));
+
+        assertEquals(List.of(algebra.getId(), algorithms.getId()),
+                ids(repository().searchByTokens(List.of("alg"), 0, 10)));
+        assertEquals(List.of(algorithms.getId()), ids(repository().searchByTokens(List.of("alg", "jon"), 0, 10)));
+        assertEquals(List.of(algorithms.getId()), ids(repository().searchByTokens(List.of("alg"), 1, 10)));
+        ScheduleRow row = repository().searchByTokens(List.of("smith"), 0, 10).get(0);
+        assertEquals("Algebra", row.getClassName());
+        assertEquals(2, row.getWaitlistSize());
+    }
+
+    @Test
+    void rowsArePagedByIdInEitherDirection() {
+        List<String> ids = List.of(
+                repository().save(schedule("Algebra", "Dr. Smith", "09:00-10:00")).getId(),
+                repository().save(schedule("Biology", "Dr. Jones", "10:00-11:00")).getId(),
+                repository().save(schedule("Chemistry", "Dr. Brown", "11:00-12:00")).getId());
+        PageRequest ascending = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        PageRequest descending = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+        assertEquals(ids.subList(0, 2), ids(repository().findRowsBy(ascending)));
+        assertEquals(ids.subList(1, 3), ids(repository().findRowsByIdGreaterThan(ids.get(0), ascending)));
+        assertEquals(List.of(ids.get(1), ids.get(0)), ids(repository().findRowsByIdLessThan(ids.get(2), descending)));
+        assertEquals(2, repository().findRowsBy(ascending).get(0).getWaitlistSize());
+    }
+
+    @Test
+    void deletedSchedulesLeaveTheSearchIndex() {
+        ClassSchedule algebra = repository().save(schedule("Algebra", "Dr. Smith", "09:00-10:00"));
+
+        repository().delete(algebra);
+
+        assertFalse(repository().existsById(algebra.getId()));
+        assertEquals(List.of(), repository().searchByTokens(List.of("algebra"), 0, 10));
+    }
+
+    @Test
+    void renamedSchedulesAreFoundUnderTheNewName() {
+        ClassSchedule schedule = repository().save(schedule("Algebra", "Dr. Smith", "09:00-10:00"));
+        schedule.setClassName("Geometry");
+        repository().save(schedule);
+
+        assertEquals(List.of(), repository().searchByTokens(List.of("algebra"), 0, 10));
+        assertEquals(List.of(schedule.getId()), ids(repository().searchByTokens(List.of("geo"), 0, 10)));
+    }
+
+    private static ClassSchedule schedule(String className, String instructor, String time) {
+        return ClassSchedule.builder()
+                .className(className)
+                .instructor(instructor)
+                .time(time)
+                .room("A-101")
+                .duration("90 min")
+                .maxCapacity(30)
+                .waitlist(List.of("s1", "s2"))
+                .build();
+    }
+
+    private static List<String> ids(List<ScheduleRow> rows) {
+        return rows.stream().map(ScheduleRow::getId).toList();
+    }
+}
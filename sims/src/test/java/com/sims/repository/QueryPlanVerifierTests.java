@@ -0,0 +1,38 @@
+package com.sims.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanVerifierTests {
+
+    @Test
+    void findsCollectionScansInClassicAndSlotBasedPlans() {
+        Document classic = Document.parse("{queryPlanner: {winningPlan: {stage: 'LIMIT', inputStage: "
+                + "{stage: 'COLLSCAN', filter: {email: {$eq: 'x'}}}}, rejectedPlans: []}}");
+        Document slotBased = Document.parse("{queryPlanner: {winningPlan: {queryPlan: {stage: 'SORT', inputStage: "
+                + "{stage: 'COLLSCAN'}}, slotBasedPlan: {stages: '...'}}}}");
+        Document sharded = Document.parse("{queryPlanner: {winningPlan: {stage: 'SHARD_MERGE', shards: ["
+                + "{shardName: 'a', winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN'}}},"
+                + "{shardName: 'b', winningPlan: {stage: 'COLLSCAN'}}]}}}");
+
+        assertTrue(QueryPlanVerifier.isCollectionScan(classic, false));
+        assertTrue(QueryPlanVerifier.isCollectionScan(slotBased, false));
+        assertTrue(QueryPlanVerifier.isCollectionScan(sharded, false));
+    }
+
+    @Test
+    void ignoresIndexedAndRejectedPlans() {
+        Document indexed = Document.parse("{queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: "
+                + "{stage: 'IXSCAN', indexName: 'email_1'}}, rejectedPlans: [{stage: 'COLLSCAN'}]}}");
+        Document aggregation = Document.parse("{stages: [{$cursor: {queryPlanner: {winningPlan: "
+                + "{stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'searchTokens_1'}}}}}, {$limit: 26}]}");
+        Document missingCollection = Document.parse("{queryPlanner: {winningPlan: {stage: 'EOF'}}}");
+
+        assertFalse(QueryPlanVerifier.isCollectionScan(indexed, false));
+        assertFalse(QueryPlanVerifier.isCollectionScan(aggregation, false));
+        assertFalse(QueryPlanVerifier.isCollectionScan(missingCollection, false));
+    }
+}
@@ -0,0 +1,150 @@
+package com.sims.repository;
+
+import com.sims.model.Student;
+import com.sims.model.StudentRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * What every {@link StudentRepository} implementation must do, run once per
+ * storage engine by a subclass that supplies an empty repository.
+ */
+public abstract class StudentRepositoryContract {
+
+    protected abstract StudentRepository repository();
+
+    @BeforeEach
+    void clear() {
+        repository().deleteAll();
+    }
+
+    @Test
+    void savedStudentsAreFoundByIdAndEmail() {
+        Student saved = repository().save(student("Ada", "Lovelace"));
+
+        assertNotNull(saved.getId());
+        assertEquals(1, repository().count());
+        Student found = repository().findById(saved.getId()).orElseThrow();
+        assertEquals("ada.lovelace@school.org", found.getEmail());
+        assertEquals(LocalDate.of(2024, 9, 1), found.getEnrollmentDate());
+        assertNotNull(found.getUpdatedAt());
+        assertEquals(saved.getId(), repository().findByEmail("ada.lovelace@school.org").orElseThrow().getId());
+        assertTrue(repository().findByEmail("nobody@school.org").isEmpty());
+    }
+
+    @Test
+    void emailsAreUnique() {
+        repository().save(student("Ada", "Lovelace"));
+
+        assertThrows(DuplicateKeyException.class, () -> repository().save(student("Ada", "Lovelace")));
+        assertEquals(1, repository().count());
+    }
+
+    @Test
+    void changingAnEmailReleasesTheOldOne() {
+        Student ada = repository().save(student("Ada", "Lovelace"));
+        ada.setEmail("ada@school.org");
+        repository().save(ada);
+
+        Student other = repository().save(student("Ada", "Lovelace"));
+
+        assertEquals(other.getId(), repository().findByEmail("ada.lovelace@school.org").orElseThrow().getId());
+        assertEquals(ada.getId(), repository().findByEmail("ada@school.org").orElseThrow().getId());
+    }
+
+    @Test
+    void searchMatchesPrefixesOfEveryTermAndRanksWholeWordsFirst() {
+        Student adam = repository().save(student("Adam", "Smith"));
+        Student ada = repository().save(student("Ada", "Smithers"));
+        repository().save(student("Grace", "Hopper"));
+
+        assertEquals(List.of(ada.getId(), adam.getId()), ids(repository().searchByTokens(List.of("ada"), 0, 10)));
+        assertEquals(List.of(adam.getId(), ada.getId()), ids(repository().searchByTokens(List.of("smith"), 0, 10)));
+        assertEquals(List.of(ada.getId()), ids(repository().searchByTokens(List.of("ad", "smithe"), 0, 10)));
+        assertEquals(List.of(), repository().searchByTokens(List.of("ada", "hop"), 0, 10));
+    }
+
+    @Test
+    void searchPagesWithSkipAndLimit() {
+        List<String> ids = List.of(
+                repository().save(student("Ann", "Avery")).getId(),
+                repository().save(student("Ann", "Baker")).getId(),
+                repository().save(student("Ann", "Clark")).getId());
+
+        assertEquals(ids.subList(0, 2), ids(repository().searchByTokens(List.of("ann"), 0, 2)));
+        assertEquals(ids.subList(2, 3), ids(repository().searchByTokens(List.of("ann"), 2, 2)));
+        StudentRow row = repository().searchByTokens(List.of("clark"), 0, 1).get(0);
+        assertEquals("ann.clark@school.org", row.getEmail());
+        assertEquals("Grade 5", row.getGradeLevel());
+    }
+
+    @Test
+    void rowsArePagedByIdInEitherDirection() {
+        List<String> ids = List.of(
+                repository().save(student("Ann", "Avery")).getId(),
+                repository().save(student("Ben", "Baker")).getId(),
+                repository().save(student("Cal", "Clark")).getId(),
+                repository().save(student("Dee", "Dunn")).getId());
+        PageRequest ascending = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        PageRequest descending = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+        assertEquals(ids.subList(0, 2), ids(repository().findRowsBy(ascending)));
+        assertEquals(ids.subList(2, 4), ids(repository().findRowsByIdGreaterThan(ids.get(1), ascending)));
+        assertEquals(List.of(ids.get(3), ids.get(2)), ids(repository().findRowsBy(descending)));
+        assertEquals(List.of(ids.get(1), ids.get(0)), ids(repository().findRowsByIdLessThan(ids.get(2), descending)));
+    }
+
+    @Test
+    void deletedStudentsLeaveEveryIndex() {
+        Student ada = repository().save(student("Ada", "Lovelace"));
+
+        repository().deleteById(ada.getId());
+
+        assertFalse(repository().existsById(ada.getId()));
+        assertTrue(repository().findByEmail("ada.lovelace@school.org").isEmpty());
+        assertEquals(List.of(), repository().searchByTokens(List.of("ada"), 0, 10));
+        assertEquals(List.of(), repository().findRowsBy(PageRequest.of(0, 10, Sort.by("id"))));
+        repository().save(student("Ada", "Lovelace"));
+    }
+
+    @Test
+    void storedStudentsAreNotChangedThroughReturnedInstances() {
+        Student ada = repository().save(student("Ada", "Lovelace"));
+        ada.setFirstName("Changed");
+        repository().findById(ada.getId()).orElseThrow().setLastName("Changed");
+
+        Student found = repository().findById(ada.getId()).orElseThrow();
+
+        assertEquals("Ada", found.getFirstName());
+        assertEquals("Lovelace", found.getLastName());
+    }
+
+    protected static Student student(String firstName, String lastName) {
+        return Student.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + "@school.org")
+                .phone("+15551234567")
+                .gradeLevel("Grade 5")
+                .address("1 Main St")
+                .guardianName("Guardian")
+                .enrollmentDate(LocalDate.of(2024, 9, 1))
+                .build();
+    }
+
+    private static List<String> ids(List<StudentRow> rows) {
+        return rows.stream().map(StudentRow::getId).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.sims.search;
+
+import com.sims.model.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTokensTests {
+
+    @Test
+    void studentTokensCoverEveryPrefixOfNameAndEmailWords() {
+        Student student = Student.builder().firstName("Ana").lastName("O'Neil").email("ana.oneil@School.org").build();
+
+        SearchTokens.apply(student);
+
+        assertEquals(List.of("ana", "o", "neil", "oneil", "school", "org"), student.getSearchWords());
+        assertTrue(student.getSearchTokens().containsAll(List.of("a", "an", "ana", "ne", "neil", "sch", "org")));
+    }
+
+    @Test
+    void queryTermsAreNormalizedAndRegexCharactersAreInert() {
+        assertEquals(List.of("ana", "sch"), SearchTokens.queryTerms("  ANA  sch "));
+        assertEquals(List.of("a", "b"), SearchTokens.queryTerms(".*a(b)+"));
+        assertTrue(SearchTokens.queryTerms("$ne{}").contains("ne"));
+        assertTrue(SearchTokens.queryTerms("  ").isEmpty());
+    }
+
+    @Test
+    void longWordsAreCappedAtTheLongestIndexedPrefix() {
+        List<String> terms = SearchTokens.queryTerms("supercalifragilisticexpialidocious");
+
+        assertEquals(SearchTokens.MAX_PREFIX_LENGTH, terms.get(0).length());
+        assertTrue(SearchTokens.prefixes(SearchTokens.words("supercalifragilisticexpialidocious")).contains(terms.get(0)));
+    }
+}
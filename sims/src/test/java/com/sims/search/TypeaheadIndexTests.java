@@ -0,0 +1,146 @@
+package com.sims.search;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import com.sims.model.Suggestion;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TypeaheadIndexTests {
+
+    private final TypeaheadIndex index = new TypeaheadIndex();
+
+    @Test
+    void suggestsByPrefixOfAnyWordAndNarrowsOnEveryTerm() {
+        index.put(student("1", "Ana", "Oneil", "ana.oneil@school.org"));
+        index.put(student("2", "Andrew", "Smith", "asmith@school.org"));
+        index.put(schedule("3", "Anatomy", "Dr. Oneil"));
+
+        assertEquals(3, index.suggest("an", null, 10).size());
+        assertEquals(List.of("1", "3"), ids(index.suggest("AN one", null, 10)));
+        assertEquals(List.of("1"), ids(index.suggest("ana.o", Suggestion.Type.STUDENT, 10)));
+        assertEquals(List.of("3"), ids(index.suggest("an", Suggestion.Type.SCHEDULE, 10)));
+    }
+
+    @Test
+    void updatesAndDeletesAreReflectedImmediately() {
+        index.put(student("1", "Ana", "Oneil", "ana@school.org"));
+        index.put(student("1", "Bea", "Oneil", "bea@school.org"));
+
+        assertTrue(index.suggest("ana", null, 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.suggest("bea", null, 10)));
+
+        index.remove(Suggestion.Type.STUDENT, "1");
+        assertTrue(index.suggest("oneil", null, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void honoursTheLimit() {
+        for (int i = 0; i < 50; i++) {
+            index.put(student(String.valueOf(i), "Sam" + i, "Lee", "sam" + i + "@school.org"));
+        }
+
+        assertEquals(5, index.suggest("sam", null, 5).size());
+    }
+
+    @Test
+    void changesMadeWhileLoadingWinOverWhatTheLoadRead() throws Exception {
+        index.put(student("1", "Ana", "Oneil", "ana@school.org"));
+        index.put(student("2", "Bea", "Oneil", "bea@school.org"));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        // The cursor returns both students as they were before the changes below
+        when(mongoTemplate.stream(any(Query.class), eq(Student.class))).thenAnswer(invocation -> {
+            reading.countDown();
+            changed.await();
+            return Stream.of(student("1", "Ana", "Oneil", "ana@school.org"),
+                    student("2", "Bea", "Oneil", "bea@school.org"));
+        });
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+
+        CompletableFuture<Void> load = CompletableFuture.runAsync(index::load);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        index.remove(Suggestion.Type.STUDENT, "1");
+        index.put(student("2", "Cleo", "Oneil", "cleo@school.org"));
+        changed.countDown();
+        load.get(5, TimeUnit.SECONDS);
+
+        assertTrue(index.suggest("ana", null, 10).isEmpty());
+        assertTrue(index.suggest("bea", null, 10).isEmpty());
+        assertEquals(List.of("2"), ids(index.suggest("cleo", null, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void renamesAndDeletesDropTheTermsNoLongerUsed() {
+        index.put(student("1", "Ana", "Oneil", "ana@school.org"));
+        index.put(student("2", "Bea", "Oneil", "bea@school.org"));
+        index.put(student("1", "Cleo", "Oneil", "cleo@school.org"));
+        index.remove(Suggestion.Type.STUDENT, "2");
+
+        assertEquals(Set.of("cleo", "oneil", "school", "org", "cleo@school.org"), Set.copyOf(terms()));
+        index.remove(Suggestion.Type.STUDENT, "1");
+        assertTrue(terms().isEmpty());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(index, "postings")).isEmpty());
+    }
+
+    @Test
+    void concurrentUpdatesOfOneStudentLeaveOnlyTheLastName() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> updates = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String name = "Name" + i;
+                updates.add(pool.submit(() -> index.put(student("1", name, "Oneil", "one@school.org"))));
+            }
+            for (Future<?> update : updates) {
+                update.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, index.suggest("name", null, 10).size());
+        assertEquals(6, terms().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> terms() {
+        return (Set<String>) ReflectionTestUtils.getField(index, "terms");
+    }
+
+    private static List<String> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getId).sorted().toList();
+    }
+
+    private static Student student(String id, String firstName, String lastName, String email) {
+        return Student.builder().id(id).firstName(firstName).lastName(lastName).email(email).build();
+    }
+
+    private static ClassSchedule schedule(String id, String className, String instructor) {
+        return ClassSchedule.builder().id(id).className(className).instructor(instructor).build();
+    }
+}
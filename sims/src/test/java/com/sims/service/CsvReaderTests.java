@@ -0,0 +1,44 @@
+package com.sims.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTests {
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = reader("\uFEFFname,address\n\"O'Neil, Ana\",\"12 \"\"Elm\"\" St\nApt 4\"\n\nBo,  Main St  \n");
+
+        assertEquals(List.of("name", "address"), csv.next());
+        assertEquals(List.of("O'Neil, Ana", "12 \"Elm\" St\nApt 4"), csv.next());
+        assertEquals(2, csv.recordLine());
+        assertEquals(List.of("Bo", "Main St"), csv.next());
+        assertEquals(5, csv.recordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void emptyTrailingFieldIsKept() throws IOException {
+        assertEquals(List.of("a", "", ""), reader("a,,\n").next());
+    }
+
+    @Test
+    void unterminatedQuoteIsReported() {
+        CsvReader csv = reader("\"never closed\nstill going");
+
+        IOException e = assertThrows(IOException.class, csv::next);
+        assertEquals("Unterminated quoted field starting on line 1", e.getMessage());
+    }
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new BufferedReader(new StringReader(text)));
+    }
+}
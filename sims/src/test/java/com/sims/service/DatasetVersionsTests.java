@@ -0,0 +1,31 @@
+package com.sims.service;
+
+import com.sims.model.ReportType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetVersionsTests {
+
+    @Test
+    void laterWritesAndLaterRunsCompareNewer() {
+        DatasetVersions versions = new DatasetVersions();
+        String first = versions.current(ReportType.STUDENTS);
+        versions.bump(ReportType.STUDENTS);
+        String second = versions.current(ReportType.STUDENTS);
+        // Counters are compared as numbers, so 10 comes after 9
+        String epoch = first.substring(0, first.indexOf('-'));
+
+        assertTrue(DatasetVersions.compare(first, second) < 0);
+        assertTrue(DatasetVersions.compare(epoch + "-10", epoch + "-9") > 0);
+        assertTrue(DatasetVersions.compare("0-99", first) < 0);
+        assertEquals(0, DatasetVersions.compare(second, second));
+    }
+
+    @Test
+    void namesThatAreNotVersionsSortFirst() {
+        assertTrue(DatasetVersions.compare("report", "0-0") < 0);
+        assertTrue(DatasetVersions.compare("abc-x", "0-0") < 0);
+    }
+}
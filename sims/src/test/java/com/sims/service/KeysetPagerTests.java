@@ -0,0 +1,68 @@
+package com.sims.service;
+
+import com.sims.model.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeysetPagerTests {
+    private static final List<String> IDS = List.of("a", "b", "c", "d", "e");
+
+    private final KeysetPager<String> pager = new KeysetPager<>(
+            pageable -> read(id -> true, pageable),
+            (id, pageable) -> read(other -> other.compareTo(id) > 0, pageable),
+            (id, pageable) -> read(other -> other.compareTo(id) < 0, pageable),
+            id -> id);
+
+    @Test
+    void cursorsAreSetOnlyWhenRowsLieBeyondThem() {
+        CursorPage<String> first = pager.page(null, null, 2, "asc");
+        assertEquals(List.of("a", "b"), first.getContent());
+        assertEquals("b", first.getNextCursor());
+        assertNull(first.getPrevCursor());
+
+        CursorPage<String> last = pager.page("d", null, 2, "asc");
+        assertEquals(List.of("e"), last.getContent());
+        assertNull(last.getNextCursor());
+        assertEquals("e", last.getPrevCursor());
+    }
+
+    @Test
+    void walkingBackToTheEndLeavesNoNextCursor() {
+        // The row the cursor named has gone, so nothing follows this page
+        CursorPage<String> back = pager.page(null, "f", 2, "asc");
+        assertEquals(List.of("d", "e"), back.getContent());
+        assertNull(back.getNextCursor());
+        assertEquals("d", back.getPrevCursor());
+
+        CursorPage<String> start = pager.page(null, "c", 2, "asc");
+        assertEquals(List.of("a", "b"), start.getContent());
+        assertEquals("b", start.getNextCursor());
+        assertNull(start.getPrevCursor());
+    }
+
+    @Test
+    void descendingPagesWalkTheOtherWay() {
+        CursorPage<String> first = pager.page(null, null, 2, "desc");
+        assertEquals(List.of("e", "d"), first.getContent());
+        assertEquals("d", first.getNextCursor());
+
+        CursorPage<String> back = pager.page(null, "b", 2, "desc");
+        assertEquals(List.of("d", "c"), back.getContent());
+        assertEquals("c", back.getNextCursor());
+        assertEquals("d", back.getPrevCursor());
+    }
+
+    private static List<String> read(Predicate<String> filter, Pageable pageable) {
+        Comparator<String> order = pageable.getSort().getOrderFor("id").isAscending()
+                ? Comparator.naturalOrder()
+                : Comparator.reverseOrder();
+        return IDS.stream().filter(filter).sorted(order).limit(pageable.getPageSize()).toList();
+    }
+}
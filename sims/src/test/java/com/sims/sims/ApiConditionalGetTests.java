@@ -0,0 +1,144 @@
+package com.sims.sims;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Needs MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ApiConditionalGetTests extends StoreTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedStudentIsNotSentAgain() throws Exception {
+        Student student = save("ada@example.com");
+        String url = "/api/v1/students/" + student.getId();
+
+        MvcResult first = mockMvc.perform(get(url).param("fields", "firstName,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("ada@example.com"))
+                .andExpect(jsonPath("$.phone").doesNotExist())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).param("fields", "firstName,email").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        student.setFirstName("Augusta");
+        studentService.updateStudent(student);
+        MvcResult changed = mockMvc.perform(get(url).param("fields", "firstName,email").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Augusta"))
+                .andReturn();
+        assertNotEquals(eTag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void pageTagChangesWhenARowIsDeleted() throws Exception {
+        save("a@example.com");
+        Student leaving = save("b@example.com");
+
+        String eTag = mockMvc.perform(get("/api/v1/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/students").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        studentService.deleteStudent(leaving.getId());
+        mockMvc.perform(get("/api/v1/students").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+    }
+
+    @Test
+    void rangeSelectsFieldsInStartOrder() throws Exception {
+        schedule("Chemistry", "11:00-12:30");
+        schedule("Physics", "09:00-10:30");
+        schedule("Biology", "15:00-16:30");
+
+        String eTag = mockMvc.perform(get("/api/v1/schedules/range")
+                        .param("startFrom", "08:00").param("startTo", "12:00").param("fields", "className"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].className").value("Physics"))
+                .andExpect(jsonPath("$.content[0].room").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/schedules/range")
+                        .param("startFrom", "08:00").param("startTo", "12:00").param("fields", "className")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void rejectsUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/v1/students").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void schedule(String name, String time) {
+        classScheduleService.addClassSchedule(ClassSchedule.builder()
+                .className(name)
+                .instructor("Dr. Smith")
+                .time(time)
+                .room("A-101")
+                .duration("1.5 hours")
+                .maxCapacity(30)
+                .build());
+    }
+
+    private Student save(String email) {
+        Student student = Student.builder()
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .email(email)
+                .phone("+15550100")
+                .gradeLevel("12")
+                .address("1 Analytical Way")
+                .guardianName("Anne")
+                .build();
+        studentService.enrollStudent(student);
+        return student;
+    }
+}
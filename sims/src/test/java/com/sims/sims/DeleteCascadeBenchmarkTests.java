@@ -0,0 +1,195 @@
+package com.sims.sims;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.EnrollmentRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares round trips and latency of a per-document delete cascade against
+ * the bulk cascade the services run. Counts MongoDB round trips, so it needs
+ * MongoDB; see {@link StoreTestSupport#requireMongo()}.
+ */
+@SpringBootTest
+class DeleteCascadeBenchmarkTests extends StoreTestSupport {
+    private static final Logger logger = LoggerFactory.getLogger(DeleteCascadeBenchmarkTests.class);
+    private static final int ROSTER = 500;
+    private static final int BULK_SCHEDULES = 50;
+    private static final AtomicLong COMMANDS = new AtomicLong();
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @TestConfiguration
+    static class CommandCounting {
+        @Bean
+        MongoClientSettingsBuilderCustomizer countCommands() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    COMMANDS.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+        enrollmentRepository.deleteAll();
+    }
+
+    @Test
+    void deletingAFullLectureTakesAConstantNumberOfRoundTrips() {
+        ClassSchedule legacy = seedLecture("Legacy");
+        Measurement before = measure(() -> legacyDeleteClassSchedule(legacy.getId()));
+
+        ClassSchedule bulk = seedLecture("Bulk");
+        Measurement after = measure(() -> classScheduleService.deleteClassSchedule(bulk.getId()));
+
+        logger.info("Deleting a {}-student schedule: per-document {} round trips in {} ms, bulk {} round trips in {} ms",
+                ROSTER, before.commands, before.millis, after.commands, after.millis);
+        assertTrue(before.commands > ROSTER);
+        assertTrue(after.commands <= 5, "bulk cascade used " + after.commands + " round trips");
+        assertEquals(0, enrollmentRepository.count());
+    }
+
+    @Test
+    void bulkDeleteOfManySchedulesDoesNotScaleRoundTripsWithIds() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < BULK_SCHEDULES; i++) {
+            ids.add(seedLecture("Section " + i, 10).getId());
+        }
+        Measurement bulk = measure(() -> classScheduleService.deleteClassSchedules(ids));
+
+        logger.info("Deleting {} schedules in bulk: {} round trips in {} ms", BULK_SCHEDULES, bulk.commands, bulk.millis);
+        assertTrue(bulk.commands <= 5, "bulk delete used " + bulk.commands + " round trips");
+        assertEquals(0, classScheduleRepository.count());
+    }
+
+    @Test
+    void bulkDeleteOfStudentsFreesTheirSeats() {
+        ClassSchedule lecture = seedLecture("Lecture");
+        List<String> leaving = enrollmentRepository.findByScheduleId(lecture.getId(), Pageable.unpaged()).stream()
+                .map(Enrollment::getStudentId)
+                .limit(ROSTER / 2)
+                .toList();
+
+        Measurement bulk = measure(() -> studentService.deleteStudents(leaving));
+
+        logger.info("Deleting {} students in bulk: {} round trips in {} ms", leaving.size(), bulk.commands, bulk.millis);
+        ClassSchedule after = classScheduleRepository.findById(lecture.getId()).orElseThrow();
+        assertEquals(ROSTER - leaving.size(), enrollmentRepository.countByScheduleId(lecture.getId()));
+        assertEquals(ROSTER - leaving.size(), after.getEnrolledCount());
+        assertTrue(bulk.commands <= 10, "bulk delete used " + bulk.commands + " round trips");
+    }
+
+    @Test
+    void bulkDeleteOfStudentsDoesNotScaleRoundTripsWithSchedules() {
+        List<String> leaving = new ArrayList<>();
+        List<String> sections = new ArrayList<>();
+        for (int i = 0; i < BULK_SCHEDULES; i++) {
+            ClassSchedule section = seedLecture("Section " + i, 10);
+            sections.add(section.getId());
+            enrollmentRepository.findByScheduleId(section.getId(), Pageable.unpaged())
+                    .forEach(enrollment -> leaving.add(enrollment.getStudentId()));
+        }
+
+        Measurement bulk = measure(() -> studentService.deleteStudents(leaving));
+
+        logger.info("Deleting {} students from {} schedules in bulk: {} round trips in {} ms",
+                leaving.size(), BULK_SCHEDULES, bulk.commands, bulk.millis);
+        assertEquals(0, enrollmentRepository.count());
+        classScheduleRepository.findAllById(sections).forEach(section -> assertEquals(0, section.getEnrolledCount()));
+        assertTrue(bulk.commands <= 10, "bulk delete used " + bulk.commands + " round trips");
+    }
+
+    /** The cascade written naively against the repositories: one delete per enrollment. */
+    private void legacyDeleteClassSchedule(String id) {
+        for (Enrollment enrollment : enrollmentRepository.findByScheduleId(id, Pageable.unpaged())) {
+            enrollmentRepository.deleteById(enrollment.getId());
+        }
+        classScheduleRepository.deleteById(id);
+    }
+
+    private ClassSchedule seedLecture(String name) {
+        return seedLecture(name, ROSTER);
+    }
+
+    private ClassSchedule seedLecture(String name, int roster) {
+        ClassSchedule schedule = classScheduleRepository.save(ClassSchedule.builder()
+                .className(name)
+                .instructor("Dr. Benchmark")
+                .time("Mon 09:00")
+                .room("Hall A")
+                .duration("60")
+                .maxCapacity(roster)
+                .build());
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < roster; i++) {
+            students.add(Student.builder()
+                    .firstName(name)
+                    .lastName("Student" + i)
+                    .email(name.replace(' ', '.') + "." + i + "@example.com")
+                    .build());
+        }
+        List<Enrollment> enrollments = new ArrayList<>();
+        Instant now = Instant.now();
+        studentRepository.saveAll(students).forEach(s -> enrollments.add(Enrollment.builder()
+                .studentId(s.getId())
+                .scheduleId(schedule.getId())
+                .enrolledAt(now)
+                .build()));
+        enrollmentRepository.saveAll(enrollments);
+        schedule.setEnrolledCount(enrollments.size());
+        return classScheduleRepository.save(schedule);
+    }
+
+    private static Measurement measure(Runnable action) {
+        long commandsBefore = COMMANDS.get();
+        long start = System.nanoTime();
+        action.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Measurement(COMMANDS.get() - commandsBefore, millis);
+    }
+
+    private record Measurement(long commands, long millis) {
+    }
+}
@@ -0,0 +1,307 @@
+package com.sims.sims;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.EnrollmentRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Needs MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest(properties = "sims.enrollment.waitlist-max=" + EnrollmentConcurrencyTests.WAITLIST_MAX)
+class EnrollmentConcurrencyTests extends StoreTestSupport {
+    private static final int STUDENTS = 64;
+    static final int WAITLIST_MAX = 60;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+        enrollmentRepository.deleteAll();
+    }
+
+    @Test
+    void parallelEnrollmentsIntoOneScheduleAllSurvive() throws Exception {
+        ClassSchedule schedule = classScheduleRepository.save(schedule());
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(studentRepository.save(student(i)));
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Student student : students) {
+            tasks.add(() -> {
+                studentService.enrollInSchedule(student.getId(), schedule.getId());
+                return null;
+            });
+        }
+        // Concurrent edits of the schedule must not clobber the roster either
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> {
+                ClassSchedule edit = schedule();
+                edit.setId(schedule.getId());
+                edit.setRoom("B-" + Thread.currentThread().getId());
+                classScheduleService.updateClassSchedule(edit);
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(STUDENTS, stored.getEnrolledCount());
+        assertEquals(STUDENTS, enrollmentRepository.countByScheduleId(schedule.getId()));
+        for (Student student : students) {
+            assertEquals(1, enrollmentRepository.countByStudentId(student.getId()));
+        }
+    }
+
+    @Test
+    void duplicateEnrollmentRaceHasExactlyOneWinner() throws Exception {
+        ClassSchedule schedule = classScheduleRepository.save(schedule());
+        Student student = studentRepository.save(student(0));
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            tasks.add(() -> {
+                studentService.enrollInSchedule(student.getId(), schedule.getId());
+                return null;
+            });
+        }
+        int failures = runConcurrently(tasks);
+
+        assertEquals(15, failures);
+        ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(1, stored.getEnrolledCount());
+        assertEquals(List.of(student.getId()), roster(schedule.getId()));
+    }
+
+    @Test
+    void registrationBurstNeverExceedsCapacityAndPromotesWaitlist() throws Exception {
+        ClassSchedule template = schedule();
+        template.setMaxCapacity(10);
+        ClassSchedule schedule = classScheduleRepository.save(template);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(studentRepository.save(student(i)));
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Student student : students) {
+            tasks.add(() -> {
+                studentService.enrollInSchedule(student.getId(), schedule.getId());
+                return null;
+            });
+        }
+        assertEquals(0, runConcurrently(tasks));
+
+        ClassSchedule full = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(10, enrollmentRepository.countByScheduleId(schedule.getId()));
+        assertEquals(10, full.getEnrolledCount());
+        assertEquals(STUDENTS - 10, full.getWaitlist().size());
+
+        String leaving = roster(schedule.getId()).get(0);
+        String next = full.getWaitlist().get(0);
+        studentService.unenrollFromSchedule(leaving, schedule.getId());
+
+        ClassSchedule promoted = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(10, promoted.getEnrolledCount());
+        assertEquals(10, enrollmentRepository.countByScheduleId(schedule.getId()));
+        assertTrue(roster(schedule.getId()).contains(next));
+        assertFalse(roster(schedule.getId()).contains(leaving));
+    }
+
+    @Test
+    void seatReleasedWhileJoiningWaitlistIsNotLeftEmpty() throws Exception {
+        ClassSchedule template = schedule();
+        template.setMaxCapacity(1);
+        for (int round = 0; round < 20; round++) {
+            ClassSchedule schedule = classScheduleRepository.save(template.toBuilder().id(null).build());
+            Student leaving = studentRepository.save(student(2 * round));
+            Student joining = studentRepository.save(student(2 * round + 1));
+            studentService.enrollInSchedule(leaving.getId(), schedule.getId());
+
+            // The joiner finds the class full just as the only seat is given up
+            assertEquals(0, runConcurrently(List.of(
+                    () -> {
+                        studentService.unenrollFromSchedule(leaving.getId(), schedule.getId());
+                        return null;
+                    },
+                    () -> {
+                        studentService.enrollInSchedule(joining.getId(), schedule.getId());
+                        return null;
+                    })));
+
+            ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+            assertEquals(List.of(joining.getId()), roster(schedule.getId()), "round " + round);
+            assertEquals(1, stored.getEnrolledCount(), "round " + round);
+            assertTrue(stored.getWaitlist().isEmpty(), "round " + round);
+        }
+    }
+
+    @Test
+    void burstStopsAtTheWaitlistCap() throws Exception {
+        ClassSchedule template = schedule();
+        template.setMaxCapacity(1);
+        ClassSchedule schedule = classScheduleRepository.save(template);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = studentRepository.save(student(i));
+            tasks.add(() -> {
+                studentService.enrollInSchedule(student.getId(), schedule.getId());
+                return null;
+            });
+        }
+
+        assertEquals(STUDENTS - 1 - WAITLIST_MAX, runConcurrently(tasks));
+        ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(1, stored.getEnrolledCount());
+        assertEquals(WAITLIST_MAX, stored.getWaitlist().size());
+    }
+
+    @Test
+    void raisingTheCapacityPromotesTheWaitlist() {
+        ClassSchedule template = schedule();
+        template.setMaxCapacity(1);
+        ClassSchedule schedule = classScheduleRepository.save(template);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String id = studentRepository.save(student(i)).getId();
+            studentService.enrollInSchedule(id, schedule.getId());
+            ids.add(id);
+        }
+
+        classScheduleService.updateClassSchedule(schedule.toBuilder().maxCapacity(3).build());
+
+        ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(3, stored.getEnrolledCount());
+        assertTrue(stored.getWaitlist().isEmpty());
+        assertEquals(ids.stream().sorted().toList(), roster(schedule.getId()).stream().sorted().toList());
+    }
+
+    @Test
+    void capacityBelowTheEnrolledStudentsIsRejected() {
+        ClassSchedule schedule = classScheduleRepository.save(schedule());
+        for (int i = 0; i < 3; i++) {
+            studentService.enrollInSchedule(studentRepository.save(student(i)).getId(), schedule.getId());
+        }
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> classScheduleService.updateClassSchedule(schedule.toBuilder().maxCapacity(2).build()));
+
+        assertTrue(error.getMessage().contains("3 students already enrolled"), error.getMessage());
+        ClassSchedule stored = classScheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertEquals(500, stored.getMaxCapacity());
+        assertEquals(3, stored.getEnrolledCount());
+        classScheduleService.updateClassSchedule(schedule.toBuilder().maxCapacity(3).build());
+        assertEquals(3, classScheduleRepository.findById(schedule.getId()).orElseThrow().getMaxCapacity());
+    }
+
+    @Test
+    void deletingStudentPullsItFromEverySchedule() {
+        Student student = studentRepository.save(student(0));
+        ClassSchedule first = classScheduleRepository.save(schedule());
+        ClassSchedule second = classScheduleRepository.save(schedule());
+        studentService.enrollInSchedule(student.getId(), first.getId());
+        studentService.enrollInSchedule(student.getId(), second.getId());
+
+        assertTrue(studentService.deleteStudent(student.getId()));
+
+        assertEquals(0, enrollmentRepository.countByStudentId(student.getId()));
+        assertEquals(0, classScheduleRepository.findById(first.getId()).orElseThrow().getEnrolledCount());
+        assertEquals(0, classScheduleRepository.findById(second.getId()).orElseThrow().getEnrolledCount());
+    }
+
+    private List<String> roster(String scheduleId) {
+        return enrollmentRepository.findByScheduleId(scheduleId, Pageable.unpaged()).stream()
+                .map(Enrollment::getStudentId)
+                .toList();
+    }
+
+    private static int runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            int failures = 0;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failures++;
+                }
+            }
+            return failures;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ClassSchedule schedule() {
+        return ClassSchedule.builder()
+                .className("Physics")
+                .instructor("Dr. Smith")
+                .time("09:00-10:30")
+                .room("A-101")
+                .duration("1.5 hours")
+                .maxCapacity(500)
+                .build();
+    }
+
+    private static Student student(int i) {
+        return Student.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("student" + i + "@example.com")
+                .phone("+15550000" + i)
+                .gradeLevel("10")
+                .address("1 Main St")
+                .guardianName("Guardian " + i)
+                .build();
+    }
+}
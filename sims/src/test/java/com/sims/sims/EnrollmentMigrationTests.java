@@ -0,0 +1,77 @@
+package com.sims.sims;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Student;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.EnrollmentRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.EnrollmentMigration;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Needs MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest
+class EnrollmentMigrationTests extends StoreTestSupport {
+
+    @Autowired
+    private EnrollmentMigration enrollmentMigration;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+        enrollmentRepository.deleteAll();
+    }
+
+    @Test
+    void embeddedRostersMoveToEnrollments() {
+        String ada = new ObjectId().toHexString();
+        String alan = new ObjectId().toHexString();
+        ObjectId scheduleId = new ObjectId();
+        mongoTemplate.insert(new Document("_id", scheduleId)
+                .append("className", "Physics")
+                .append("time", "09:00-10:30")
+                .append("studentIds", List.of(ada, alan, ada)), mongoTemplate.getCollectionName(ClassSchedule.class));
+        mongoTemplate.insert(new Document("_id", new ObjectId(ada))
+                .append("firstName", "Ada")
+                .append("email", "ada@example.com")
+                .append("scheduleIds", List.of(scheduleId.toHexString())), mongoTemplate.getCollectionName(Student.class));
+
+        enrollmentMigration.migrate();
+        // A second run finds nothing left to move
+        enrollmentMigration.migrate();
+
+        ClassSchedule schedule = classScheduleRepository.findById(scheduleId.toHexString()).orElseThrow();
+        assertEquals(2, schedule.getEnrolledCount());
+        assertEquals(2, enrollmentRepository.countByScheduleId(scheduleId.toHexString()));
+        assertEquals(1, enrollmentRepository.countByStudentId(ada));
+        Document schedules = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ClassSchedule.class)).find().first();
+        assertFalse(schedules.containsKey("studentIds"));
+        Document students = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class)).find().first();
+        assertFalse(students.containsKey("scheduleIds"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.sims.sims;
+
+import com.sims.model.DataFormat;
+import com.sims.model.Student;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ExportService;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Needs MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest
+class ExportStreamingTests extends StoreTestSupport {
+    private static final int STUDENTS = 1_000;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void seed() {
+        studentRepository.deleteAll();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(Student.builder().firstName("First" + i).lastName("Last, " + i)
+                    .email("export" + i + "@example.com").build());
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @Test
+    void csvExportHasAHeaderAndOneLinePerStudent() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.writeStudents(out, DataFormat.CSV, null);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(STUDENTS, rows);
+        assertEquals(STUDENTS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,firstName,lastName,email"));
+        assertTrue(lines[1].contains("\"Last, "));
+    }
+
+    @Test
+    void sinceExportsOnlyRecentlyModifiedStudents() throws Exception {
+        Instant cutoff = Instant.now();
+        Thread.sleep(5);
+        Student changed = studentRepository.findByEmail("export7@example.com").orElseThrow();
+        changed.setGuardianName("New Guardian");
+        studentService.updateStudent(changed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.writeStudents(out, DataFormat.NDJSON, cutoff);
+
+        assertEquals(1, rows);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"guardianName\":\"New Guardian\""));
+    }
+}
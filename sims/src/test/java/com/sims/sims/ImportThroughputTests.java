@@ -0,0 +1,113 @@
+package com.sims.sims;
+
+import com.sims.model.DataFormat;
+import com.sims.model.ImportReport;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ImportService;
+import com.sims.timetable.TimeSlot;
+import com.sims.timetable.TimetableIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports a generated term-start file and reports the throughput. Needs
+ * MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest
+class ImportThroughputTests extends StoreTestSupport {
+    private static final Logger logger = LoggerFactory.getLogger(ImportThroughputTests.class);
+    private static final int ROWS = 20_000;
+    private static final String HEADER = "firstName,lastName,email,phone,gradeLevel,address,guardianName,enrollmentDate\n";
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+    }
+
+    @Test
+    void csvImportInsertsValidRowsAndReportsTheRest() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(row(i));
+        }
+        csv.append(row(0));
+        csv.append("No,Email,,+15550000,9,1 Main St,Pat,\n");
+
+        ImportReport report = importService.importStudents(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), DataFormat.CSV);
+
+        logger.info("Imported {} rows in {} ms ({} rows/s)", report.getRowsRead(), report.getElapsedMillis(), report.getRowsPerSecond());
+        assertEquals(ROWS + 2, report.getRowsRead());
+        assertEquals(ROWS, report.getInserted());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(1, report.getInvalid());
+        assertEquals(ROWS, studentRepository.count());
+        assertEquals(ROWS + 2, report.getErrors().get(0).getLine());
+        assertEquals(ROWS + 3, report.getErrors().get(1).getLine());
+    }
+
+    @Test
+    void rerunningAnImportReportsEveryRowAsStored() throws Exception {
+        String ndjson = "{\"firstName\":\"Ana\",\"lastName\":\"Lee\",\"email\":\"ana@example.com\",\"phone\":\"+15550001\","
+                + "\"gradeLevel\":\"10\",\"address\":\"1 Elm St\",\"guardianName\":\"Kim Lee\"}\n";
+
+        importService.importStudents(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), DataFormat.NDJSON);
+        ImportReport again = importService.importStudents(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), DataFormat.NDJSON);
+
+        assertEquals(0, again.getInserted());
+        assertEquals(1, again.getDuplicates());
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    void abortedScheduleImportReleasesTheRoomsOfUnwrittenRows() {
+        String csv = "className,instructor,time,room,duration,maxCapacity\n"
+                + "Algebra,Dr. Aborted,07:00-07:45,Z-901,45,30\n";
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+        InputStream input = new SequenceInputStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), broken);
+
+        assertThrows(IOException.class, () -> importService.importSchedules(input, DataFormat.CSV));
+
+        assertEquals(0, classScheduleRepository.count());
+        assertTrue(timetableIndex.isRoomFree("Z-901", TimeSlot.parse("07:00-07:45")));
+    }
+
+    private static String row(int i) {
+        return "First" + i + ",Last" + i + ",student" + i + "@example.com,+1555" + (1_000_000 + i)
+                + "," + (9 + i % 4) + ",\"" + i + " Main St, Springfield\",Guardian " + i + ",2025-09-01\n";
+    }
+}
@@ -0,0 +1,172 @@
+package com.sims.sims;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.sims.model.ClassSchedule;
+import com.sims.model.CursorPage;
+import com.sims.model.ScheduleRow;
+import com.sims.model.Student;
+import com.sims.model.StudentRow;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.EnrollmentRepository;
+import com.sims.repository.StudentRepository;
+import com.sims.service.ClassScheduleService;
+import com.sims.service.StudentService;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the bytes read from Mongo and the bytes allocated for one list
+ * page loaded as full entities against the projected rows the list pages
+ * use. Measures MongoDB's replies, so it needs MongoDB; see
+ * {@link StoreTestSupport#requireMongo()}.
+ */
+@SpringBootTest
+class ListProjectionTests extends StoreTestSupport {
+    private static final Logger logger = LoggerFactory.getLogger(ListProjectionTests.class);
+    private static final int PAGE = 100;
+    private static final int WAITLIST = 200;
+    private static final AtomicLong REPLY_BYTES = new AtomicLong();
+    private static volatile boolean counting;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ClassScheduleService classScheduleService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassScheduleRepository classScheduleRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @TestConfiguration
+    static class ReplySizes {
+        @Bean
+        MongoClientSettingsBuilderCustomizer measureReplies() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandSucceeded(CommandSucceededEvent event) {
+                    if (counting) {
+                        REPLY_BYTES.addAndGet(new RawBsonDocument(event.getResponse(), new BsonDocumentCodec())
+                                .getByteBuffer().remaining());
+                    }
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        studentRepository.deleteAll();
+        classScheduleRepository.deleteAll();
+        enrollmentRepository.deleteAll();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < PAGE; i++) {
+            students.add(Student.builder()
+                    .firstName("Alexandria")
+                    .lastName("Montgomery-Whitfield " + i)
+                    .email("alexandria." + i + "@example.com")
+                    .phone("+15550100" + i)
+                    .gradeLevel("11")
+                    .address(i + " Long Street Name, Springfield")
+                    .guardianName("Jonathan Montgomery-Whitfield")
+                    .enrollmentDate(LocalDate.of(2024, 9, 1))
+                    .build());
+        }
+        studentRepository.saveAll(students);
+        List<String> waitlist = new ArrayList<>();
+        for (int i = 0; i < WAITLIST; i++) {
+            waitlist.add(String.format("%024x", i));
+        }
+        List<ClassSchedule> schedules = new ArrayList<>();
+        for (int i = 0; i < PAGE; i++) {
+            schedules.add(ClassSchedule.builder()
+                    .className("Introduction to Computational Linguistics " + i)
+                    .instructor("Professor Evangeline Harrington")
+                    .time("09:00-10:30")
+                    .room("Building " + i)
+                    .duration("90")
+                    .maxCapacity(30)
+                    .enrolledCount(30)
+                    .waitlist(new ArrayList<>(waitlist))
+                    .build());
+        }
+        classScheduleRepository.saveAll(schedules);
+    }
+
+    @Test
+    void scheduleRowsReadLessThanEntities() {
+        Query entities = new Query().with(Sort.by("id")).limit(PAGE);
+        Measurement full = measure(() -> mongoTemplate.find(entities, ClassSchedule.class));
+        Measurement rows = measure(() -> classScheduleService.getClassSchedulesPage(null, null, PAGE, "asc"));
+
+        CursorPage<ScheduleRow> page = classScheduleService.getClassSchedulesPage(null, null, PAGE, "asc");
+        assertEquals(WAITLIST, page.getContent().get(0).getWaitlistSize());
+        logger.info("{} schedules: entities read {} bytes and allocated {} bytes, rows read {} bytes and allocated {} bytes",
+                PAGE, full.replyBytes, full.allocated, rows.replyBytes, rows.allocated);
+        assertTrue(rows.replyBytes * 5 < full.replyBytes, "rows read " + rows.replyBytes + " of " + full.replyBytes);
+    }
+
+    @Test
+    void studentRowsSkipTheSearchTokens() {
+        Query entities = new Query().with(Sort.by("id")).limit(PAGE);
+        Measurement full = measure(() -> mongoTemplate.find(entities, Student.class));
+        Measurement rows = measure(() -> studentService.getStudentsPage(null, null, PAGE, "asc"));
+
+        CursorPage<StudentRow> page = studentService.getStudentsPage(null, null, PAGE, "asc");
+        assertEquals(PAGE, page.getContent().size());
+        logger.info("{} students: entities read {} bytes and allocated {} bytes, rows read {} bytes and allocated {} bytes",
+                PAGE, full.replyBytes, full.allocated, rows.replyBytes, rows.allocated);
+        assertTrue(rows.replyBytes * 2 < full.replyBytes, "rows read " + rows.replyBytes + " of " + full.replyBytes);
+    }
+
+    /** Reply bytes and allocation are taken from separate runs, so sizing the replies is not counted as allocation. */
+    private static Measurement measure(Runnable action) {
+        action.run();
+        long bytesBefore = REPLY_BYTES.get();
+        counting = true;
+        try {
+            action.run();
+        } finally {
+            counting = false;
+        }
+        long replyBytes = REPLY_BYTES.get() - bytesBefore;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        action.run();
+        return new Measurement(replyBytes, threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    private record Measurement(long replyBytes, long allocated) {
+    }
+}
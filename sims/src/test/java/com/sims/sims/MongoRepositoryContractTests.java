@@ -0,0 +1,50 @@
+package com.sims.sims;
+
+import com.sims.model.Student;
+import com.sims.repository.ClassScheduleRepository;
+import com.sims.repository.ClassScheduleRepositoryContract;
+import com.sims.repository.IndexProvisioner;
+import com.sims.repository.StudentRepository;
+import com.sims.repository.StudentRepositoryContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the repository contracts against the Mongo repositories. Needs
+ * MongoDB; see {@link StoreTestSupport#requireMongo()}.
+ */
+@SpringBootTest(properties = "sims.indexes.verify-plans=false")
+class MongoRepositoryContractTests extends StoreTestSupport {
+
+    @Nested
+    class Students extends StudentRepositoryContract {
+        @Autowired
+        private StudentRepository repository;
+
+        @Autowired
+        private IndexProvisioner indexProvisioner;
+
+        @BeforeEach
+        void buildIndexes() {
+            indexProvisioner.ensure(Student.class);
+        }
+
+        @Override
+        protected StudentRepository repository() {
+            return repository;
+        }
+    }
+
+    @Nested
+    class Schedules extends ClassScheduleRepositoryContract {
+        @Autowired
+        private ClassScheduleRepository repository;
+
+        @Override
+        protected ClassScheduleRepository repository() {
+            return repository;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sims.sims;
+
+import com.sims.model.Student;
+import com.sims.repository.StudentRepository;
+import com.sims.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Needs MongoDB; see {@link StoreTestSupport}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PostRedirectGetTests extends StoreTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void deleteRedirectsToTheListWithAFlashMessage() throws Exception {
+        Student student = Student.builder().firstName("Ada").lastName("Lovelace").email("ada@example.com")
+                .phone("+15550100").gradeLevel("12").address("1 Analytical Way").guardianName("Anne").build();
+        studentService.enrollStudent(student);
+
+        mockMvc.perform(post("/students/delete/" + student.getId()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/students/list"))
+                .andExpect(flash().attribute("message", "Student deleted successfully!"));
+    }
+
+    @Test
+    void unchangedListIsRevalidatedWithoutRendering() throws Exception {
+        String eTag = mockMvc.perform(get("/students/list"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/students/list").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/students/delete"))
+                .andExpect(redirectedUrl("/students/list"));
+        // Nothing was deleted, so the list is still current
+        mockMvc.perform(get("/students/list").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/students/list?size=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+}
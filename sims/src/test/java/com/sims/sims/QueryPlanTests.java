@@ -0,0 +1,57 @@
+package com.sims.sims;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import com.sims.model.Student;
+import com.sims.repository.IndexProvisioner;
+import com.sims.repository.QueryPlanVerifier;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Builds the declared indexes on a fresh database and checks that no query
+ * the application sends is answered by a collection scan. Needs MongoDB;
+ * see {@link StoreTestSupport#requireMongo()}.
+ */
+@SpringBootTest(properties = "sims.indexes.verify-plans=false")
+class QueryPlanTests extends StoreTestSupport {
+
+    @Autowired
+    private IndexProvisioner indexProvisioner;
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void everyQueryUsesAnIndex() {
+        indexProvisioner.ensure(Student.class);
+        indexProvisioner.ensure(ClassSchedule.class);
+        indexProvisioner.ensure(Enrollment.class);
+
+        assertEquals(List.of(), queryPlanVerifier.collectionScans());
+    }
+
+    @Test
+    void emailsAreUnique() {
+        indexProvisioner.ensure(Student.class);
+        mongoTemplate.remove(Query.query(Criteria.where("email").is("dup@example.com")), Student.class);
+        mongoTemplate.insert(new Document("email", "dup@example.com"), mongoTemplate.getCollectionName(Student.class));
+
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.insert(new Document("email", "dup@example.com"),
+                mongoTemplate.getCollectionName(Student.class)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.sims.sims;
+
+import com.sims.model.CursorPage;
+import com.sims.model.Student;
+import com.sims.model.StudentRow;
+import com.sims.repository.IndexProvisioner;
+import com.sims.repository.StudentRepository;
+import com.sims.service.StudentService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Search latency against collection size: grows the student collection and
+ * times the first page of a search for a rare name at each size. The
+ * latencies are logged; what is asserted is that the plan examines only the
+ * matching documents however large the collection gets, which is what keeps
+ * the latency flat. Measures MongoDB, so it needs one; see
+ * {@link StoreTestSupport#requireMongo()}. The JMH SearchBenchmark in
+ * sims-benchmarks covers larger sizes and more terms.
+ */
+@SpringBootTest
+class SearchLatencyBenchmarkTests extends StoreTestSupport {
+    private static final Logger logger = LoggerFactory.getLogger(SearchLatencyBenchmarkTests.class);
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int MATCHES = 10;
+    private static final int RUNS = 100;
+    private static final int BATCH = 1_000;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private IndexProvisioner indexProvisioner;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void cleanDatabase() {
+        studentRepository.deleteAll();
+        indexProvisioner.ensure(Student.class);
+    }
+
+    @Test
+    void searchExaminesOnlyTheMatchesAtEverySize() {
+        List<Student> rare = new ArrayList<>();
+        for (int i = 0; i < MATCHES; i++) {
+            rare.add(student("Quintavious", "Rare" + i, "rare." + i + "@example.com"));
+        }
+        studentRepository.saveAll(rare);
+        int seeded = MATCHES;
+
+        for (int size : SIZES) {
+            while (seeded < size) {
+                List<Student> batch = new ArrayList<>(BATCH);
+                for (int i = 0; i < BATCH && seeded < size; i++, seeded++) {
+                    batch.add(student("Common", "Student" + seeded, "student." + seeded + "@example.com"));
+                }
+                studentRepository.saveAll(batch);
+            }
+
+            long[] micros = new long[RUNS];
+            for (int run = -RUNS / 5; run < RUNS; run++) {
+                long start = System.nanoTime();
+                CursorPage<StudentRow> page = studentService.searchStudents("quintavious", 0, 25);
+                if (run >= 0) {
+                    micros[run] = (System.nanoTime() - start) / 1_000;
+                }
+                assertEquals(MATCHES, page.getContent().size());
+            }
+            Arrays.sort(micros);
+            logger.info("Search over {} students: median {} us, p95 {} us",
+                    size, micros[RUNS / 2], micros[RUNS * 95 / 100]);
+            assertEquals(MATCHES, docsExamined("quintavious"), "documents examined at " + size + " students");
+        }
+    }
+
+    private long docsExamined(String term) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(Student.class))
+                .append("filter", new Document("searchTokens", new Document("$all", List.of(term))));
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", find)
+                .append("verbosity", "executionStats"));
+        return ((Number) explain.get("executionStats", Document.class).get("totalDocsExamined")).longValue();
+    }
+
+    private static Student student(String firstName, String lastName, String email) {
+        return Student.builder().firstName(firstName).lastName(lastName).email(email).build();
+    }
+}
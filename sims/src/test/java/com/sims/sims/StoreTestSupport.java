@@ -0,0 +1,99 @@
+package com.sims.sims;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base of the application tests that need a database. They run against the
+ * MongoDB at {@code sims.test.mongo-uri} when one is given. Otherwise they
+ * use a MongoDB on localhost if it answers, and failing that start one in a
+ * container when Docker is available; the container is shared by every test
+ * class in the run. With none of these the tests are skipped, unless
+ * {@code sims.test.require-mongo} (or {@code SIMS_TEST_REQUIRE_MONGO}) is
+ * {@code true}, which it is by default when {@code CI} is {@code true}:
+ * then the run fails instead.
+ */
+abstract class StoreTestSupport {
+    private static final String LOCAL_MONGO_URI = "mongodb://localhost:27017/sims-test";
+    private static final DockerImageName MONGO_IMAGE = DockerImageName.parse("mongo:7.0");
+    private static volatile String uri;
+    private static MongoDBContainer container;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", StoreTestSupport::mongoUri);
+    }
+
+    /** Skips the calling test class when there is no MongoDB and none is required. */
+    @BeforeAll
+    static void requireMongo() {
+        assumeTrue(mongoAvailable(), "No MongoDB: none answers at " + given(LOCAL_MONGO_URI) + " and Docker is not available");
+    }
+
+    static String mongoUri() {
+        mongoAvailable();
+        return uri.isEmpty() ? given(LOCAL_MONGO_URI) : uri;
+    }
+
+    /** Whether there is a MongoDB to test against; fails instead of answering no when one is required. */
+    static boolean mongoAvailable() {
+        if (uri == null) {
+            connect();
+        }
+        if (uri.isEmpty() && Boolean.parseBoolean(setting("sims.test.require-mongo", "SIMS_TEST_REQUIRE_MONGO",
+                setting("ci", "CI", "false")))) {
+            throw new IllegalStateException("MongoDB is required for this test run, but none answers at "
+                    + given(LOCAL_MONGO_URI) + " and Docker is not available to start one");
+        }
+        return !uri.isEmpty();
+    }
+
+    private static synchronized void connect() {
+        if (uri != null) {
+            return;
+        }
+        String given = given(null);
+        if (given != null) {
+            uri = ping(given) ? given : "";
+        } else if (ping(LOCAL_MONGO_URI)) {
+            uri = LOCAL_MONGO_URI;
+        } else if (DockerClientFactory.instance().isDockerAvailable()) {
+            // Stopped with the JVM by the Testcontainers reaper
+            container = new MongoDBContainer(MONGO_IMAGE);
+            container.start();
+            uri = container.getReplicaSetUrl("sims-test");
+        } else {
+            uri = "";
+        }
+    }
+
+    private static String given(String defaultValue) {
+        return setting("sims.test.mongo-uri", "SIMS_TEST_MONGO_URI", defaultValue);
+    }
+
+    private static boolean ping(String uri) {
+        try (MongoClient client = MongoClients.create(uri + (uri.contains("?") ? "&" : "?") + "serverSelectionTimeoutMS=1000")) {
+            client.getDatabase("admin").runCommand(new Document("ping", 1));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String setting(String property, String variable, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(variable);
+        }
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
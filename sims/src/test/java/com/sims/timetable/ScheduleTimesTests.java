@@ -0,0 +1,49 @@
+package com.sims.timetable;
+
+import com.sims.model.ClassSchedule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScheduleTimesTests {
+
+    @Test
+    void readsTheDurationFormatsPeopleType() {
+        assertEquals(90, ScheduleTimes.durationMinutes("90"));
+        assertEquals(45, ScheduleTimes.durationMinutes("45 minutes"));
+        assertEquals(90, ScheduleTimes.durationMinutes("1.5 hours"));
+        assertEquals(120, ScheduleTimes.durationMinutes("2h"));
+        assertEquals(90, ScheduleTimes.durationMinutes("1h 30m"));
+        assertEquals(75, ScheduleTimes.durationMinutes("1 Hour 15 Min"));
+        assertNull(ScheduleTimes.durationMinutes("a semester"));
+        assertNull(ScheduleTimes.durationMinutes(""));
+        assertNull(ScheduleTimes.durationMinutes("0"));
+    }
+
+    @Test
+    void derivesTypedFieldsFromTheText() {
+        ClassSchedule schedule = ClassSchedule.builder().time("09:15-10:45").duration("whenever").build();
+
+        ScheduleTimes.apply(schedule);
+
+        assertEquals(555, schedule.getStartMinute());
+        assertEquals(645, schedule.getEndMinute());
+        // Falls back to the length of the slot
+        assertEquals(90, schedule.getDurationMinutes());
+
+        schedule.setTime("not a time");
+        ScheduleTimes.apply(schedule);
+        assertNull(schedule.getStartMinute());
+        assertNull(schedule.getDurationMinutes());
+    }
+
+    @Test
+    void parsesClockTimes() {
+        assertEquals(0, ScheduleTimes.minuteOf("00:00"));
+        assertEquals(1439, ScheduleTimes.minuteOf("23:59"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleTimes.minuteOf("24:00"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleTimes.minuteOf("9:00"));
+    }
+}
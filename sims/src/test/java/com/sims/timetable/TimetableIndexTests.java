@@ -0,0 +1,175 @@
+package com.sims.timetable;
+
+import com.sims.model.ClassSchedule;
+import com.sims.model.Enrollment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimetableIndexTests {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TimetableIndex index = new TimetableIndex();
+
+    @BeforeEach
+    void emptyDatabase() {
+        // Unstubbed streams are empty, so the index loads nothing
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void parsesHalfOpenSlots() {
+        TimeSlot morning = TimeSlot.parse("09:00-10:30");
+
+        assertEquals(540, morning.start());
+        assertEquals("09:00-10:30", morning.toString());
+        assertFalse(morning.overlaps(TimeSlot.parse("10:30-11:00")));
+        assertTrue(morning.overlaps(TimeSlot.parse("10:29-11:00")));
+        assertThrows(IllegalArgumentException.class, () -> TimeSlot.parse("10:30-09:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimeSlot.parse("9am"));
+    }
+
+    @Test
+    void rejectsRoomAndInstructorDoubleBookings() {
+        index.claim(schedule("1", "A-101", "Dr. Smith", "09:00-10:30"));
+
+        IllegalArgumentException room = assertThrows(IllegalArgumentException.class,
+                () -> index.claim(schedule("2", " a-101", "Dr. Jones", "10:00-11:00")));
+        assertTrue(room.getMessage().contains("Room"));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.claim(schedule("3", "B-202", "Dr. Smith", "08:00-09:30")));
+
+        index.claim(schedule("4", "A-101", "Dr. Jones", "10:30-12:00"));
+        // Moving a schedule only clashes with others, never with its own old slot
+        index.claim(schedule("1", "A-101", "Dr. Smith", "08:30-10:30"));
+    }
+
+    @Test
+    void findsRoomsFreeForTheWholeSlot() {
+        index.claim(schedule("1", "A-101", "Dr. Smith", "09:00-10:30"));
+        index.claim(schedule("2", "B-202", "Dr. Jones", "13:00-14:00"));
+        index.claim(schedule("3", "C-303", "Dr. Brown", "10:00-11:00"));
+
+        assertEquals(List.of("A-101", "B-202"), index.freeRooms(TimeSlot.parse("10:45-12:00")));
+        assertEquals(List.of("B-202"), index.freeRooms(TimeSlot.parse("10:00-10:45")));
+
+        index.remove(List.of("3"));
+        assertEquals(List.of("B-202"), index.freeRooms(TimeSlot.parse("09:30-10:00")));
+    }
+
+    @Test
+    void keepsStudentsOutOfOverlappingClasses() {
+        index.claim(schedule("1", "A-101", "Dr. Smith", "09:00-10:30"));
+        index.claim(schedule("2", "B-202", "Dr. Jones", "10:00-11:00"));
+        index.claim(schedule("3", "C-303", "Dr. Brown", "11:00-12:00"));
+
+        assertTrue(index.claimEnrollment("s1", "1"));
+        assertFalse(index.claimEnrollment("s1", "1"));
+        assertThrows(IllegalArgumentException.class, () -> index.claimEnrollment("s1", "2"));
+        assertTrue(index.claimEnrollment("s1", "3"));
+
+        // Moving a class onto another of an enrolled student's classes is a clash too
+        assertThrows(IllegalArgumentException.class,
+                () -> index.claim(schedule("3", "C-303", "Dr. Brown", "10:00-11:00")));
+
+        index.removeEnrollment("s1", "1");
+        assertTrue(index.claimEnrollment("s1", "2"));
+
+        index.removeStudents(List.of("s1"));
+        assertTrue(index.claimEnrollment("s1", "1"));
+    }
+
+    @Test
+    void restoreUndoesAFailedClaim() {
+        index.claim(schedule("1", "A-101", "Dr. Smith", "09:00-10:30"));
+        TimetableIndex.Booking previous = index.claim(schedule("1", "A-101", "Dr. Smith", "13:00-14:00"));
+
+        index.restore("1", previous);
+        assertThrows(IllegalArgumentException.class,
+                () -> index.claim(schedule("2", "A-101", "Dr. Jones", "09:30-10:00")));
+
+        index.restore("1", null);
+        index.claim(schedule("2", "A-101", "Dr. Jones", "09:30-10:00"));
+    }
+
+    @Test
+    void loadsStoredSchedulesAndEnrollmentsBeforeTheFirstCheck() {
+        when(mongoTemplate.stream(any(Query.class), eq(ClassSchedule.class))).thenAnswer(invocation -> Stream.of(
+                schedule("1", "A-101", "Dr. Smith", "09:00-10:30"),
+                schedule("2", "B-202", "Dr. Jones", "10:00-11:00")));
+        when(mongoTemplate.stream(any(Query.class), eq(Enrollment.class))).thenAnswer(invocation -> Stream.of(
+                Enrollment.builder().studentId("s1").scheduleId("1").build()));
+
+        // No warm-up ran, yet the check is not answered from an empty index
+        assertThrows(IllegalArgumentException.class, () -> index.claimEnrollment("s1", "2"));
+        assertFalse(index.isRoomFree("a-101", TimeSlot.parse("10:00-10:15")));
+    }
+
+    @Test
+    void failedLoadIsRetriedByTheNextCaller() {
+        when(mongoTemplate.stream(any(Query.class), eq(ClassSchedule.class)))
+                .thenThrow(new DataAccessResourceFailureException("Timed out"))
+                .thenAnswer(invocation -> Stream.of(schedule("1", "A-101", "Dr. Smith", "09:00-10:30")));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> index.isRoomFree("A-101", TimeSlot.parse("09:00-09:30")));
+        assertFalse(index.isRoomFree("A-101", TimeSlot.parse("09:00-09:30")));
+    }
+
+    @Test
+    void concurrentEnrollmentsOfOneStudentCannotBothTakeTheSameTime() throws Exception {
+        index.claim(schedule("1", "A-101", "Dr. Smith", "09:00-10:30"));
+        index.claim(schedule("2", "B-202", "Dr. Jones", "10:00-11:00"));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                String studentId = "s" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (String scheduleId : List.of("1", "2")) {
+                    claims.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            return index.claimEnrollment(studentId, scheduleId);
+                        } catch (IllegalArgumentException e) {
+                            return false;
+                        }
+                    }));
+                }
+                start.countDown();
+                int granted = 0;
+                for (Future<Boolean> claim : claims) {
+                    granted += claim.get(10, TimeUnit.SECONDS) ? 1 : 0;
+                }
+                assertEquals(1, granted, "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ClassSchedule schedule(String id, String room, String instructor, String time) {
+        return ClassSchedule.builder().id(id).className("Class " + id).room(room).instructor(instructor).time(time).build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.sims.timetable;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimetableSolverTests {
+    private static final Logger logger = LoggerFactory.getLogger(TimetableSolverTests.class);
+
+    @Test
+    void respectsCapacityExistingBookingsAndOverlappingSlots() {
+        List<TimeSlot> slots = List.of(TimeSlot.parse("09:00-10:00"), TimeSlot.parse("09:30-10:30"),
+                TimeSlot.parse("10:30-11:30"));
+        TimetableSolver.Problem problem = new TimetableSolver.Problem(
+                List.of("Dr. Smith", "dr. smith ", "Dr. Jones", "Dr. Jones"),
+                new int[]{150, 20, 20, 20}, new int[4],
+                List.of("Hall", "Lab"), new int[]{200, 30}, slots);
+        // The lab is taken at 09:00 by a class that already exists
+        TimetableSolver solver = new TimetableSolver(problem,
+                (room, slot) -> !(room.equals("Lab") && slot.start() == 540), (instructor, slot) -> true);
+
+        TimetableSolver.Result result = solver.solve(Duration.ofMillis(200), 2, 42);
+
+        assertEquals(4, result.placed());
+        assertEquals(0, result.rooms()[0], "150 seats only fit in the hall");
+        assertConflictFree(problem, result);
+        for (int c = 0; c < 4; c++) {
+            assertFalse(result.rooms()[c] == 1 && result.slots()[c] == 0);
+        }
+    }
+
+    @Test
+    void leavesOutClassesThatCannotFit() {
+        TimetableSolver.Problem problem = new TimetableSolver.Problem(
+                List.of("A", "A", "A"), new int[]{10, 10, 10}, new int[3],
+                List.of("Room 1", "Room 2"), new int[]{50, 50}, List.of(TimeSlot.parse("09:00-10:00"), TimeSlot.parse("10:00-11:00")));
+
+        TimetableSolver.Result result = new TimetableSolver(problem, (room, slot) -> true, (instructor, slot) -> true)
+                .solve(Duration.ofMillis(100), 1, 7);
+
+        // One instructor, two slots
+        assertEquals(2, result.placed());
+        assertConflictFree(problem, result);
+    }
+
+    @Test
+    void neverPutsAClassIntoASlotShorterThanIt() {
+        // The free hour-long slot would fit the room and the instructor, but not a two-hour class
+        TimetableSolver.Problem problem = new TimetableSolver.Problem(
+                List.of("A", "B"), new int[]{10, 10}, new int[]{120, 60},
+                List.of("Room 1"), new int[]{50}, List.of(TimeSlot.parse("09:00-10:00"), TimeSlot.parse("13:00-15:00")));
+
+        TimetableSolver.Result result = new TimetableSolver(problem,
+                (room, slot) -> slot.start() != 13 * 60, (instructor, slot) -> true)
+                .solve(Duration.ofMillis(100), 1, 3);
+
+        assertEquals(1, result.placed());
+        assertEquals(-1, result.slots()[0], "the two-hour class has no slot long enough left");
+        assertEquals(0, result.slots()[1]);
+    }
+
+    /**
+     * Synthetic term: 2,000 classes taught by 250 instructors, 220 rooms of
+     * mixed sizes and ten hourly slots, so 91% of all room-hours are needed.
+     */
+    @Test
+    void placesASyntheticTermOfTwoThousandClasses() {
+        Random random = new Random(2024);
+        int classes = 2000;
+        List<String> instructors = new ArrayList<>(classes);
+        int[] seats = new int[classes];
+        for (int c = 0; c < classes; c++) {
+            instructors.add("Instructor " + (c % 250));
+            seats[c] = 10 + random.nextInt(140);
+        }
+        List<String> rooms = new ArrayList<>();
+        int[] capacities = new int[220];
+        for (int r = 0; r < capacities.length; r++) {
+            rooms.add("Room " + r);
+            capacities[r] = r < 20 ? 200 : 150;
+        }
+        List<TimeSlot> slots = new ArrayList<>();
+        for (int hour = 8; hour < 18; hour++) {
+            slots.add(TimeSlot.parse(String.format("%02d:00-%02d:00", hour, hour + 1)));
+        }
+        TimetableSolver.Problem problem = new TimetableSolver.Problem(instructors, seats, new int[classes], rooms, capacities, slots);
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        TimetableSolver.Result result = new TimetableSolver(problem, (room, slot) -> true, (instructor, slot) -> true)
+                .solve(Duration.ofSeconds(3), threads, 1);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Placed {} of {} classes in {} ms on {} threads over {} attempts",
+                result.placed(), classes, millis, threads, result.attempts());
+        assertConflictFree(problem, result);
+        assertTrue(result.placed() >= classes * 0.99, "placed only " + result.placed());
+    }
+
+    private static void assertConflictFree(TimetableSolver.Problem problem, TimetableSolver.Result result) {
+        Set<String> taken = new HashSet<>();
+        for (int c = 0; c < problem.instructors().size(); c++) {
+            if (result.rooms()[c] < 0) {
+                continue;
+            }
+            TimeSlot slot = problem.slots().get(result.slots()[c]);
+            assertTrue(problem.roomCapacities()[result.rooms()[c]] >= problem.seatsNeeded()[c]);
+            assertTrue(slot.length() >= problem.durationMinutes()[c], "class longer than its slot");
+            for (int minute = slot.start(); minute < slot.end(); minute++) {
+                assertTrue(taken.add("room " + result.rooms()[c] + "@" + minute), "room double-booked");
+                String instructor = problem.instructors().get(c).trim().toLowerCase();
+                assertTrue(taken.add(instructor + "@" + minute), "instructor double-booked");
+            }
+        }
+    }
+}